@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingArchiveBatchRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically moves bookings that ended more than {@code shareit.booking.archive.after} ago into
+ * booking_archive, one chunk per transaction, so the hot booking table only holds recent and upcoming bookings.
+ */
+@Component
+public class BookingArchiver {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final BookingArchiveBatchRepository batchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    public BookingArchiver(BookingArchiveBatchRepository batchRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.after:P90D}") Duration retention) {
+        this.batchRepository = batchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+    }
+
+    /**
+     * Every archived booking ended, and therefore started, before this moment.
+     */
+    public LocalDateTime horizon() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval:PT1H}",
+            initialDelayString = "${shareit.booking.archive.interval:PT1H}")
+    public int archiveFinishedBookings() {
+        LocalDateTime before = horizon();
+        int archived = 0;
+        int moved;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = batchRepository.findFinishedIds(before, CHUNK_SIZE);
+                return batchRepository.moveToArchive(ids);
+            });
+            moved = chunk != null ? chunk : 0;
+            archived += moved;
+        } while (moved == CHUNK_SIZE);
+        return archived;
+    }
+}
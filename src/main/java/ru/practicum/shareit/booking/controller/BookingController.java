@@ -1,12 +1,25 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.counter.BookingCountService;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingStreamService;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.idempotency.IdempotencyService;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/bookings")
@@ -15,11 +28,18 @@ public class BookingController {
 
     private static final String USERID_HEADER = "X-Sharer-User-Id";
     private final BookingService bookingService;
+    private final BookingStreamService bookingStreamService;
+    private final BookingCountService bookingCountService;
+    private final IdempotencyService idempotencyService;
 
 
     @PostMapping
-    public BookingInfoDto addBooking(@RequestHeader(USERID_HEADER) Long userId, @RequestBody BookingDto booking) {
-        return bookingService.addBooking(userId, booking);
+    public BookingInfoDto addBooking(@RequestHeader(USERID_HEADER) Long userId,
+                                     @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+                                     String idempotencyKey,
+                                     @RequestBody BookingDto booking) {
+        return idempotencyService.execute(idempotencyKey, "POST /bookings", userId, booking, BookingInfoDto.class,
+                () -> bookingService.addBooking(userId, booking));
     }
 
     @PatchMapping("/{bookingId}")
@@ -30,6 +50,12 @@ public class BookingController {
         return bookingService.updateBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingDecisionResult> updateBookingStatuses(@RequestHeader(USERID_HEADER) Long userId,
+                                                             @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.updateBookingStatuses(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingInfoDto getCurrentBooking(@RequestHeader(USERID_HEADER) Long userId,
                                             @PathVariable Long bookingId) {
@@ -37,20 +63,45 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingInfoDto> getBooking(@RequestHeader(USERID_HEADER) Long userId,
-                                           @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                           @RequestParam(required = false, defaultValue = "0") Integer from,
-                                           @RequestParam(required = false, defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingInfoDto>> getBooking(@RequestHeader(USERID_HEADER) Long userId,
+                                                           @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                           @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                           @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                           @RequestParam(required = false) String cursor) {
 
-        return bookingService.getBooking(userId, stateParam, from, size);
+        return toResponse(bookingService.getBooking(userId, stateParam, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingInfoDto> getOwnerBooking(@RequestHeader(USERID_HEADER) Long userId,
-                                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                @RequestParam(required = false, defaultValue = "10") Integer size) {
+    public ResponseEntity<List<BookingInfoDto>> getOwnerBooking(@RequestHeader(USERID_HEADER) Long userId,
+                                                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                                @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                                @RequestParam(required = false) String cursor) {
+
+        return toResponse(bookingService.getOwnerBooking(userId, stateParam, from, size, cursor));
+    }
+
+    @GetMapping("/counts")
+    public Map<BookingState, Long> getBookingCounts(@RequestHeader(USERID_HEADER) Long userId) {
+        return bookingCountService.getCounts(BookingRole.BOOKER, userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<BookingState, Long> getOwnerBookingCounts(@RequestHeader(USERID_HEADER) Long userId) {
+        return bookingCountService.getCounts(BookingRole.OWNER, userId);
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerBookings(@RequestHeader(USERID_HEADER) Long userId) {
+        return bookingStreamService.subscribe(userId);
+    }
 
-        return bookingService.getOwnerBooking(userId, stateParam, from, size);
+    private static ResponseEntity<List<BookingInfoDto>> toResponse(CursorPage<BookingInfoDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
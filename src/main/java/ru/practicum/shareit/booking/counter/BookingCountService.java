@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.SingleFlight;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Per-state booking counts for bookers and owners. Counters are loaded with two queries on first use and then
+ * kept current from booking events; the TTL bounds any drift from changes made outside the booking API.
+ */
+@Service
+public class BookingCountService {
+
+    private final BookingRepository repository;
+    private final UserJpaRepository userRepository;
+    private final BoundedCache<CounterKey, BookingCounters> counters;
+    private final SingleFlight<CounterKey, BookingCounters> loads = new SingleFlight<>();
+
+    @Autowired
+    public BookingCountService(BookingRepository repository,
+                               UserJpaRepository userRepository,
+                               @Value("${shareit.booking.counts.max-size:10000}") int maxSize,
+                               @Value("${shareit.booking.counts.ttl:PT10M}") Duration ttl) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.counters = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public Map<BookingState, Long> getCounts(BookingRole role, Long userId) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new ObjectNotFoundException("User not found."));
+        return counters.get(new CounterKey(role, userId), key -> loads.execute(key, this::load))
+                .snapshot(LocalDateTime.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingInfoDto booking = event.getBooking();
+        LocalDateTime now = LocalDateTime.now();
+        Consumer<BookingCounters> change = event.getPreviousStatus() == null
+                ? counts -> counts.add(booking.getStatus(), booking.getStart(), booking.getEnd(), now)
+                : counts -> counts.changeStatus(event.getPreviousStatus(), booking.getStatus());
+        update(event.getOwnerId(), booking.getBooker().getId(), change);
+    }
+
+    @EventListener
+    public void onBookingLifecycle(BookingLifecycleEvent event) {
+        for (Booking booking : event.getExpired()) {
+            update(booking.getItem().getOwner().getId(), booking.getBooker().getId(),
+                    counts -> counts.changeStatus(BookingStatus.WAITING, BookingStatus.EXPIRED));
+        }
+    }
+
+    private void update(Long ownerId, Long bookerId, Consumer<BookingCounters> change) {
+        update(new CounterKey(BookingRole.OWNER, ownerId), change);
+        update(new CounterKey(BookingRole.BOOKER, bookerId), change);
+    }
+
+    private void update(CounterKey key, Consumer<BookingCounters> change) {
+        loads.forget(key);
+        counters.update(key, change);
+    }
+
+    private BookingCounters load(CounterKey key) {
+        LocalDateTime now = LocalDateTime.now();
+        return new BookingCounters(repository.countByStatus(key.getRole(), key.getUserId()),
+                repository.findOpenSpans(key.getRole(), key.getUserId(), now), now);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class CounterKey {
+        private final BookingRole role;
+        private final Long userId;
+    }
+}
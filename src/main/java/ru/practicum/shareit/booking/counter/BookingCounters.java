@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.counter;
+
+import ru.practicum.shareit.booking.repository.BookingSpan;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Booking counts of one booker or owner per {@link BookingState}. Status counts change on writes; the time
+ * states are advanced lazily: bookings that have not ended sit in a queue ordered by their next boundary, and
+ * a read moves only the bookings whose start or end has passed since the previous read.
+ */
+class BookingCounters {
+
+    private final Map<BookingStatus, Long> statuses = new EnumMap<>(BookingStatus.class);
+    private final Map<BookingState, Long> periods = new EnumMap<>(BookingState.class);
+    private final PriorityQueue<Span> open = new PriorityQueue<>(Comparator.comparing((Span span) -> span.next));
+    private long all;
+
+    BookingCounters(Map<BookingStatus, Long> statusCounts, Collection<BookingSpan> openSpans, LocalDateTime now) {
+        statuses.putAll(statusCounts);
+        all = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        periods.put(BookingState.PAST, all - openSpans.size());
+        openSpans.forEach(span -> track(span.getStart(), span.getEnd(), now));
+    }
+
+    synchronized void add(BookingStatus status, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        all++;
+        statuses.merge(status, 1L, Long::sum);
+        if (end.isBefore(now)) {
+            periods.merge(BookingState.PAST, 1L, Long::sum);
+        } else {
+            track(start, end, now);
+        }
+    }
+
+    synchronized void changeStatus(BookingStatus from, BookingStatus to) {
+        statuses.merge(from, -1L, Long::sum);
+        statuses.merge(to, 1L, Long::sum);
+    }
+
+    synchronized Map<BookingState, Long> snapshot(LocalDateTime now) {
+        while (!open.isEmpty() && !open.peek().next.isAfter(now)) {
+            Span span = open.poll();
+            move(span, now);
+        }
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, all);
+        counts.put(BookingState.CURRENT, periods.getOrDefault(BookingState.CURRENT, 0L));
+        counts.put(BookingState.PAST, periods.getOrDefault(BookingState.PAST, 0L));
+        counts.put(BookingState.FUTURE, periods.getOrDefault(BookingState.FUTURE, 0L));
+        counts.put(BookingState.WAITING, statuses.getOrDefault(BookingStatus.WAITING, 0L));
+        counts.put(BookingState.REJECTED, statuses.getOrDefault(BookingStatus.REJECTED, 0L));
+        return counts;
+    }
+
+    private void track(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        Span span = new Span(start, end);
+        move(span, now);
+    }
+
+    private void move(Span span, LocalDateTime now) {
+        if (span.period != null) {
+            periods.merge(span.period, -1L, Long::sum);
+        }
+        span.period = span.periodAt(now);
+        if (span.period != null) {
+            periods.merge(span.period, 1L, Long::sum);
+        }
+        span.next = span.nextChangeAfter(now);
+        if (span.next != null) {
+            open.add(span);
+        }
+    }
+
+    /**
+     * Period boundaries are exclusive, as in the booking queries: at exactly its start or end a booking is in none.
+     */
+    private static final class Span {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private BookingState period;
+        private LocalDateTime next;
+
+        private Span(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        private BookingState periodAt(LocalDateTime now) {
+            if (start.isAfter(now)) {
+                return BookingState.FUTURE;
+            }
+            if (end.isBefore(now)) {
+                return BookingState.PAST;
+            }
+            return start.isBefore(now) && end.isAfter(now) ? BookingState.CURRENT : null;
+        }
+
+        private LocalDateTime nextChangeAfter(LocalDateTime now) {
+            if (start.isAfter(now)) {
+                return start;
+            }
+            if (start.isEqual(now)) {
+                return start.plusNanos(1);
+            }
+            if (end.isAfter(now)) {
+                return end;
+            }
+            return end.isEqual(now) ? end.plusNanos(1) : null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookingDecisionResult {
+
+    private Long bookingId;
+    private BookingInfoDto booking;
+    private String error;
+}
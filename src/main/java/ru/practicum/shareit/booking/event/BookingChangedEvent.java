@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.enums.BookingStatus;
+
+/**
+ * A booking was created ({@code previousStatus} is null) or changed status through the booking API.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    private final Long ownerId;
+    private final BookingInfoDto booking;
+    private final BookingStatus previousStatus;
+}
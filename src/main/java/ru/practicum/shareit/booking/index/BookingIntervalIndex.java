@@ -0,0 +1,289 @@
+package ru.practicum.shareit.booking.index;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item view of the bookings that occupy an item. Each item keeps its bookings together with their
+ * union as sorted non-overlapping ranges, so a "is this window free" check is a single floor lookup.
+ * The union is maintained incrementally on every write, and bookings are pruned once they end.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    public static final Set<BookingStatus> BLOCKING_STATUSES = EnumSet.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    public void rebuild(Collection<Booking> bookings) {
+        items.clear();
+        bookings.forEach(this::put);
+    }
+
+    public void put(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (BLOCKING_STATUSES.contains(booking.getStatus())) {
+            Interval interval = new Interval(booking);
+            items.compute(itemId, (id, intervals) -> {
+                ItemIntervals target = intervals != null ? intervals : new ItemIntervals();
+                target.put(interval);
+                return target;
+            });
+        } else {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                intervals.remove(booking.getId());
+            }
+        }
+    }
+
+    public void removeItem(Long itemId) {
+        items.remove(itemId);
+    }
+
+    public void removeBooker(Long bookerId) {
+        items.values().forEach(intervals -> intervals.removeBooker(bookerId));
+    }
+
+    /**
+     * Drops the WAITING bookings of an item that overlap the window, mirroring
+     * {@code BookingRepository.rejectOverlappingWaiting}.
+     */
+    public void rejectOverlappingWaiting(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals != null) {
+            intervals.rejectOverlappingWaiting(bookingId, start, end);
+        }
+    }
+
+    /**
+     * Forgets the bookings of an item that ended by the cutoff; called as bookings end so finished
+     * intervals do not accumulate. An item left without bookings is dropped.
+     */
+    public void pruneEnded(Long itemId, LocalDateTime cutoff) {
+        items.computeIfPresent(itemId, (id, intervals) -> {
+            intervals.pruneEnded(cutoff);
+            return intervals.isEmpty() ? null : intervals;
+        });
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = items.get(itemId);
+        return intervals == null || intervals.isFree(start, end);
+    }
+
+    /**
+     * Like {@link #isFree} but only APPROVED bookings occupy the item, used when approving a waiting booking.
+     */
+    public boolean isFreeOfApproved(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = items.get(itemId);
+        return intervals == null || intervals.isFreeOfApproved(start, end);
+    }
+
+    /**
+     * Occupied ranges of an item inside {@code [from, to)}, merged and clipped to the window, in start order.
+     */
+    public List<TimeRange> busyRanges(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemIntervals intervals = items.get(itemId);
+        return intervals == null ? List.of() : intervals.busyRanges(from, to);
+    }
+
+    private static final class Interval {
+        private static final Comparator<Interval> BY_START = Comparator
+                .comparing((Interval interval) -> interval.start)
+                .thenComparing(interval -> interval.bookingId);
+
+        private final Long bookingId;
+        private final Long bookerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final BookingStatus status;
+
+        private Interval(Booking booking) {
+            this(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd(),
+                    booking.getStatus());
+        }
+
+        private Interval(Long bookingId, Long bookerId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+            this.bookingId = bookingId;
+            this.bookerId = bookerId;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+
+        /**
+         * Sorts before or after every interval starting at {@code start}, for range views of a sorted set.
+         */
+        private static Interval bound(LocalDateTime start, boolean first) {
+            return new Interval(first ? Long.MIN_VALUE : Long.MAX_VALUE, null, start, start, null);
+        }
+    }
+
+    private static final class ItemIntervals {
+        private final Map<Long, Interval> bookings = new HashMap<>();
+        private final RangeUnion busy = new RangeUnion();
+        private final RangeUnion approved = new RangeUnion();
+
+        private synchronized void put(Interval interval) {
+            Interval previous = bookings.put(interval.bookingId, interval);
+            if (previous != null) {
+                unlink(previous);
+            }
+            busy.add(interval);
+            if (interval.status == BookingStatus.APPROVED) {
+                approved.add(interval);
+            }
+        }
+
+        private synchronized void remove(Long bookingId) {
+            Interval interval = bookings.remove(bookingId);
+            if (interval != null) {
+                unlink(interval);
+            }
+        }
+
+        private synchronized void removeBooker(Long bookerId) {
+            removeIf(interval -> bookerId.equals(interval.bookerId));
+        }
+
+        private synchronized void rejectOverlappingWaiting(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            removeIf(interval -> interval.status == BookingStatus.WAITING
+                    && !interval.bookingId.equals(bookingId)
+                    && interval.start.isBefore(end) && interval.end.isAfter(start));
+        }
+
+        private synchronized void pruneEnded(LocalDateTime cutoff) {
+            busy.pruneEnded(cutoff).forEach(interval -> bookings.remove(interval.bookingId));
+            approved.pruneEnded(cutoff);
+        }
+
+        private synchronized boolean isEmpty() {
+            return bookings.isEmpty();
+        }
+
+        private synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+            return busy.isFree(start, end);
+        }
+
+        private synchronized boolean isFreeOfApproved(LocalDateTime start, LocalDateTime end) {
+            return approved.isFree(start, end);
+        }
+
+        private synchronized List<TimeRange> busyRanges(LocalDateTime from, LocalDateTime to) {
+            return busy.ranges(from, to);
+        }
+
+        private void removeIf(Predicate<Interval> condition) {
+            List<Interval> removed = bookings.values().stream()
+                    .filter(condition)
+                    .collect(Collectors.toList());
+            for (Interval interval : removed) {
+                bookings.remove(interval.bookingId);
+                unlink(interval);
+            }
+        }
+
+        private void unlink(Interval interval) {
+            busy.remove(interval);
+            approved.remove(interval);
+        }
+    }
+
+    /**
+     * Intervals sorted by start together with their union as non-overlapping ranges. Adding extends or joins
+     * the neighbouring ranges; removing rebuilds only the range that contained the interval.
+     */
+    private static final class RangeUnion {
+        private final NavigableSet<Interval> intervals = new TreeSet<>(Interval.BY_START);
+        private final NavigableMap<LocalDateTime, LocalDateTime> ranges = new TreeMap<>();
+
+        private void add(Interval interval) {
+            intervals.add(interval);
+            cover(interval.start, interval.end);
+        }
+
+        private void remove(Interval interval) {
+            if (!intervals.remove(interval)) {
+                return;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> range = ranges.floorEntry(interval.start);
+            ranges.remove(range.getKey());
+            for (Interval other : intervals.subSet(Interval.bound(range.getKey(), true), true,
+                    Interval.bound(range.getValue(), false), true)) {
+                cover(other.start, other.end);
+            }
+        }
+
+        /**
+         * Drops the ranges that ended by the cutoff together with their intervals and returns those intervals.
+         */
+        private List<Interval> pruneEnded(LocalDateTime cutoff) {
+            LocalDateTime prunedEnd = null;
+            while (!ranges.isEmpty() && !ranges.firstEntry().getValue().isAfter(cutoff)) {
+                prunedEnd = ranges.pollFirstEntry().getValue();
+            }
+            if (prunedEnd == null) {
+                return List.of();
+            }
+            NavigableSet<Interval> ended = intervals.headSet(Interval.bound(prunedEnd, false), true);
+            List<Interval> pruned = new ArrayList<>(ended);
+            ended.clear();
+            return pruned;
+        }
+
+        private boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> range = ranges.lowerEntry(end);
+            return range == null || !range.getValue().isAfter(start);
+        }
+
+        private List<TimeRange> ranges(LocalDateTime from, LocalDateTime to) {
+            LocalDateTime first = ranges.floorKey(from);
+            List<TimeRange> result = new ArrayList<>();
+            for (Map.Entry<LocalDateTime, LocalDateTime> range
+                    : ranges.subMap(first != null ? first : from, true, to, false).entrySet()) {
+                if (range.getValue().isAfter(from)) {
+                    result.add(new TimeRange(range.getKey().isBefore(from) ? from : range.getKey(),
+                            range.getValue().isAfter(to) ? to : range.getValue()));
+                }
+            }
+            return result;
+        }
+
+        private void cover(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> previous = ranges.floorEntry(start);
+            if (previous != null && !previous.getValue().isBefore(start)) {
+                start = previous.getKey();
+                end = max(end, previous.getValue());
+            }
+            for (Map.Entry<LocalDateTime, LocalDateTime> next = ranges.ceilingEntry(start);
+                 next != null && !next.getKey().isAfter(end); next = ranges.ceilingEntry(start)) {
+                end = max(end, next.getValue());
+                ranges.remove(next.getKey());
+            }
+            ranges.put(start, end);
+        }
+
+        private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+/**
+ * Bookings that started, ended or expired during one scheduler tick. Item, item owner and booker are loaded.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingLifecycleEvent {
+
+    private final List<Booking> started;
+    private final List<Booking> ended;
+    private final List<Booking> expired;
+
+    public boolean isEmpty() {
+        return started.isEmpty() && ended.isEmpty() && expired.isEmpty();
+    }
+}
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Drives booking start, end and expiry from a timing wheel instead of from per-request time checks.
+ * Waiting bookings still unapproved when they start become {@link BookingStatus#EXPIRED}; every tick's
+ * transitions are applied with one select and one guarded bulk update and published as a single
+ * {@link BookingLifecycleEvent}. Timers are not cancelled on status changes, the state is re-read when they fire.
+ * Timers of a tick whose transaction fails are rescheduled with backoff.
+ */
+@Component
+public class BookingLifecycleScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int MAX_RETRY_SHIFT = 6;
+
+    private final BookingRepository repository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemDetailsCache itemCache;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private final HierarchicalTimingWheel<Transition> wheel;
+    private final List<Transition> due = new ArrayList<>();
+
+    @Autowired
+    public BookingLifecycleScheduler(BookingRepository repository,
+                                     BookingIntervalIndex intervalIndex,
+                                     ItemDetailsCache itemCache,
+                                     ApplicationEventPublisher publisher,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shareit.booking.lifecycle.tick:PT1S}") Duration tick) {
+        this(repository, intervalIndex, itemCache, publisher, transactionTemplate, tick, System::currentTimeMillis);
+    }
+
+    BookingLifecycleScheduler(BookingRepository repository,
+                              BookingIntervalIndex intervalIndex,
+                              ItemDetailsCache itemCache,
+                              ApplicationEventPublisher publisher,
+                              TransactionTemplate transactionTemplate,
+                              Duration tick,
+                              LongSupplier clock) {
+        this.repository = repository;
+        this.intervalIndex = intervalIndex;
+        this.itemCache = itemCache;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), WHEEL_SIZE, WHEEL_LEVELS, clock.getAsLong());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingBookings() {
+        repository.findAllByStatusInAndEndIsAfter(BookingIntervalIndex.BLOCKING_STATUSES, now())
+                .forEach(this::track);
+    }
+
+    public synchronized void track(Booking booking) {
+        long startMillis = toMillis(booking.getStart());
+        if (booking.getStatus() == BookingStatus.WAITING) {
+            schedule(new Transition(booking.getId(), Kind.START), startMillis);
+        } else if (booking.getStatus() == BookingStatus.APPROVED) {
+            if (startMillis > clock.getAsLong()) {
+                schedule(new Transition(booking.getId(), Kind.START), startMillis);
+            }
+            schedule(new Transition(booking.getId(), Kind.END), toMillis(booking.getEnd()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.tick:PT1S}")
+    public void tick() {
+        List<Transition> fired;
+        synchronized (this) {
+            fired = new ArrayList<>(due);
+            due.clear();
+            wheel.advance(clock.getAsLong(), fired::add);
+        }
+        if (fired.isEmpty()) {
+            return;
+        }
+        BookingLifecycleEvent event;
+        try {
+            event = transactionTemplate.execute(status -> apply(fired));
+        } catch (RuntimeException e) {
+            retry(fired);
+            throw e;
+        }
+        if (event == null || event.isEmpty()) {
+            return;
+        }
+        for (Booking booking : event.getExpired()) {
+            intervalIndex.put(booking);
+            itemCache.invalidateBookings(booking.getItem().getId());
+        }
+        for (Booking booking : event.getEnded()) {
+            intervalIndex.pruneEnded(booking.getItem().getId(), booking.getEnd());
+        }
+        publisher.publishEvent(event);
+    }
+
+    synchronized int pendingTimers() {
+        return wheel.size() + due.size();
+    }
+
+    /**
+     * Puts the transitions of a failed tick back on the wheel, each retry waiting twice as many ticks as the
+     * previous one up to {@code 2^MAX_RETRY_SHIFT} ticks, so a database outage delays transitions but never drops them.
+     */
+    private synchronized void retry(List<Transition> fired) {
+        long now = clock.getAsLong();
+        for (Transition transition : fired) {
+            Transition next = new Transition(transition.bookingId, transition.kind, transition.attempt + 1);
+            schedule(next, now + (tickMillis << Math.min(transition.attempt, MAX_RETRY_SHIFT)));
+        }
+    }
+
+    private void schedule(Transition transition, long deadlineMillis) {
+        if (!wheel.schedule(transition, deadlineMillis)) {
+            due.add(transition);
+        }
+    }
+
+    private BookingLifecycleEvent apply(List<Transition> fired) {
+        Set<Long> ids = fired.stream()
+                .map(transition -> transition.bookingId)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = repository.findAllWithItemOwnerByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        LocalDateTime now = now();
+        Map<Long, Booking> started = new LinkedHashMap<>();
+        Map<Long, Booking> ended = new LinkedHashMap<>();
+        Map<Long, Booking> expired = new LinkedHashMap<>();
+        for (Transition transition : fired) {
+            Booking booking = bookings.get(transition.bookingId);
+            if (booking == null) {
+                continue;
+            }
+            if (transition.kind == Kind.START && !booking.getStart().isAfter(now)) {
+                if (booking.getStatus() == BookingStatus.WAITING) {
+                    expired.put(booking.getId(), booking);
+                } else if (booking.getStatus() == BookingStatus.APPROVED) {
+                    started.put(booking.getId(), booking);
+                }
+            } else if (transition.kind == Kind.END && !booking.getEnd().isAfter(now)
+                    && booking.getStatus() == BookingStatus.APPROVED) {
+                ended.put(booking.getId(), booking);
+            }
+        }
+        if (!expired.isEmpty()) {
+            int changed = repository.updateStatus(expired.keySet(), BookingStatus.WAITING, BookingStatus.EXPIRED);
+            if (changed < expired.size()) {
+                // some were approved or rejected after the select; keep only the rows this update expired
+                Set<Long> expiredIds = repository.findAllWithItemOwnerByIdIn(expired.keySet()).stream()
+                        .filter(booking -> booking.getStatus() == BookingStatus.EXPIRED)
+                        .map(Booking::getId)
+                        .collect(Collectors.toSet());
+                expired.keySet().retainAll(expiredIds);
+            }
+            // detached by the update, so this only refreshes the copies handed to listeners
+            expired.values().forEach(booking -> booking.setStatus(BookingStatus.EXPIRED));
+        }
+        return new BookingLifecycleEvent(new ArrayList<>(started.values()), new ArrayList<>(ended.values()),
+                new ArrayList<>(expired.values()));
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private enum Kind {
+        START,
+        END
+    }
+
+    private static final class Transition {
+        private final Long bookingId;
+        private final Kind kind;
+        private final int attempt;
+
+        private Transition(Long bookingId, Kind kind) {
+            this(bookingId, kind, 0);
+        }
+
+        private Transition(Long bookingId, Kind kind, int attempt) {
+            this.bookingId = bookingId;
+            this.kind = kind;
+            this.attempt = attempt;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick, each higher level's bucket spans a whole rotation
+ * of the level below; when time reaches a higher bucket its timers are cascaded down. Scheduling and firing are
+ * O(1) per timer regardless of how far away deadlines are. Deadlines beyond the top level are parked there and
+ * re-placed on every rotation. Not thread-safe.
+ */
+class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<List<Timer<T>>>> levels;
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = new ArrayList<>(levelCount);
+        for (int level = 0; level < levelCount; level++) {
+            List<List<Timer<T>>> buckets = new ArrayList<>(wheelSize);
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                buckets.add(new ArrayList<>());
+            }
+            levels.add(buckets);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Returns {@code false} without scheduling when the deadline has already been reached. Deadlines are rounded
+     * up to whole ticks, so a timer never fires before its deadline.
+     */
+    boolean schedule(T task, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(task, deadlineTick));
+        size++;
+        return true;
+    }
+
+    void advance(long nowMillis, Consumer<T> consumer) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            int highest = 0;
+            long unit = wheelSize;
+            while (highest + 1 < levels.size() && currentTick % unit == 0) {
+                highest++;
+                unit *= wheelSize;
+            }
+            for (int level = highest; level >= 1; level--) {
+                drain(level, consumer);
+            }
+            drain(0, consumer);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void drain(int level, Consumer<T> consumer) {
+        long unit = unit(level);
+        List<List<Timer<T>>> buckets = levels.get(level);
+        int index = (int) ((currentTick / unit) % wheelSize);
+        List<Timer<T>> timers = buckets.get(index);
+        if (timers.isEmpty()) {
+            return;
+        }
+        buckets.set(index, new ArrayList<>());
+        for (Timer<T> timer : timers) {
+            if (timer.deadlineTick <= currentTick) {
+                size--;
+                consumer.accept(timer.task);
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        int level = 0;
+        long span = wheelSize;
+        while (delta >= span && level + 1 < levels.size()) {
+            level++;
+            span *= wheelSize;
+        }
+        int index = (int) ((timer.deadlineTick / unit(level)) % wheelSize);
+        levels.get(level).get(index).add(timer);
+    }
+
+    private long unit(int level) {
+        long unit = 1;
+        for (int i = 0; i < level; i++) {
+            unit *= wheelSize;
+        }
+        return unit;
+    }
+
+    private static final class Timer<T> {
+        private final T task;
+        private final long deadlineTick;
+
+        private Timer(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.lock;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Serializes booking writes per item and answers overlap checks with data that is consistent under that lock.
+ * Selected with {@code shareit.booking.lock-mode}: {@code local} for a single instance,
+ * {@code database} when several instances share one database.
+ */
+public interface BookingLockProvider {
+
+    <T> T withItemLock(Long itemId, Supplier<T> action);
+
+    /**
+     * Holds the locks of all given items at once. Locks are taken in a fixed order, so concurrent
+     * multi-item callers cannot deadlock.
+     */
+    <T> T withItemLocks(Collection<Long> itemIds, Supplier<T> action);
+
+    boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    boolean isFreeOfApproved(Long itemId, LocalDateTime start, LocalDateTime end);
+}
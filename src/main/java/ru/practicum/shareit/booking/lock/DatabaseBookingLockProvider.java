@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-safe locking: the item row is locked with SELECT ... FOR UPDATE in the caller's transaction and held
+ * until it commits, and overlap checks query the booking table, since other nodes' in-memory indexes are not visible.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lock-mode", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseBookingLockProvider implements BookingLockProvider {
+
+    private final ItemJpaRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ObjectNotFoundException("Item not found."));
+        return action.get();
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public <T> T withItemLocks(Collection<Long> itemIds, Supplier<T> action) {
+        if (!itemIds.isEmpty() && itemRepository.findAllByIdInForUpdate(itemIds).size() != new HashSet<>(itemIds).size()) {
+            throw new ObjectNotFoundException("Item not found.");
+        }
+        return action.get();
+    }
+
+    @Override
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return !bookingRepository.existsOverlapping(itemId, start, end, BookingIntervalIndex.BLOCKING_STATUSES);
+    }
+
+    @Override
+    public boolean isFreeOfApproved(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return !bookingRepository.existsOverlapping(itemId, start, end, EnumSet.of(BookingStatus.APPROVED));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed array of locks hashed by item id. Booking writes for one item are serialized,
+ * while items on different stripes never contend and memory stays bounded by the stripe count.
+ * Inside a transaction the locks are held until it completes, so after-commit index updates
+ * are visible before the next writer of the item checks for overlaps.
+ */
+public class ItemLockStripes {
+
+    private final Lock[] locks;
+    private final int mask;
+
+    public ItemLockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes, 1));
+        if (size < stripes) {
+            size <<= 1;
+        }
+        locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public <T> T withLock(Long itemId, Supplier<T> action) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            release(lock::unlock);
+        }
+    }
+
+    /**
+     * Locks the stripes of all given items in ascending stripe order, each stripe once.
+     */
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        int[] stripes = itemIds.stream()
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            int held = locked;
+            release(() -> {
+                for (int i = held - 1; i >= 0; i--) {
+                    locks[stripes[i]].unlock();
+                }
+            });
+        }
+    }
+
+    int stripeOf(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static void release(Runnable unlock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unlock.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock.run();
+            }
+        });
+    }
+
+    private Lock lockFor(Long itemId) {
+        return locks[stripeOf(itemId)];
+    }
+}
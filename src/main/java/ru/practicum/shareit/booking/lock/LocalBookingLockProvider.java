@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * In-JVM locking: striped item locks with overlap checks against the in-memory interval index.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lock-mode", havingValue = "local", matchIfMissing = true)
+public class LocalBookingLockProvider implements BookingLockProvider {
+
+    private final ItemLockStripes stripes;
+    private final BookingIntervalIndex intervalIndex;
+
+    public LocalBookingLockProvider(@Value("${shareit.booking.lock-stripes:64}") int stripes,
+                                    BookingIntervalIndex intervalIndex) {
+        this.stripes = new ItemLockStripes(stripes);
+        this.intervalIndex = intervalIndex;
+    }
+
+    @Override
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        return stripes.withLock(itemId, action);
+    }
+
+    @Override
+    public <T> T withItemLocks(Collection<Long> itemIds, Supplier<T> action) {
+        return stripes.withLocks(itemIds, action);
+    }
+
+    @Override
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervalIndex.isFree(itemId, start, end);
+    }
+
+    @Override
+    public boolean isFreeOfApproved(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervalIndex.isFreeOfApproved(itemId, start, end);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    boolean existsByBooker_IdAndItem_Id(Long bookerId, Long itemId);
+
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.id IN :itemIds AND b.status <> :excluded " +
+            "AND b.start = (SELECT MAX(b2.start) FROM ArchivedBooking b2 " +
+            "WHERE b2.item.id = b.item.id AND b2.status <> :excluded)")
+    List<ArchivedBooking> findLastBookings(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("excluded") BookingStatus excluded);
+}
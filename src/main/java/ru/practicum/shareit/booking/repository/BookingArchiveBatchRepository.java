@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished bookings from the booking table to booking_archive with set-based statements.
+ * Callers run {@link #findFinishedIds} and {@link #moveToArchive} in one transaction per chunk.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingArchiveBatchRepository {
+
+    private static final String SELECT_FINISHED =
+            "SELECT id FROM booking WHERE end_date < :before ORDER BY id LIMIT :limit";
+    private static final String COPY_TO_ARCHIVE =
+            "INSERT INTO booking_archive (id, start_date, end_date, status, item_id, booker_id) " +
+                    "SELECT id, start_date, end_date, status, item_id, booker_id FROM booking WHERE id IN (:ids)";
+    private static final String DELETE_ARCHIVED = "DELETE FROM booking WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<Long> findFinishedIds(LocalDateTime before, int limit) {
+        return jdbcTemplate.queryForList(SELECT_FINISHED, new MapSqlParameterSource()
+                .addValue("before", before)
+                .addValue("limit", limit), Long.class);
+    }
+
+    public int moveToArchive(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update(COPY_TO_ARCHIVE, parameters);
+        return jdbcTemplate.update(DELETE_ARCHIVED, parameters);
+    }
+}
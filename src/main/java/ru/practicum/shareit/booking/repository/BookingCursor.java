@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.exception.InvalidEntityException;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in a booking listing ordered by (start, id) descending.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public String encode() {
+        return PageCursor.encode(start + SEPARATOR + id);
+    }
+
+    public static BookingCursor decode(String cursor) {
+        String[] position = PageCursor.decode(cursor).split(SEPARATOR, 2);
+        try {
+            return new BookingCursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidEntityException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface BookingQueryRepository {
+
+    /**
+     * Lists the bookings of a booker or of an item owner in one statement, newest first by (start, id),
+     * projected straight into {@link BookingInfoDto}. With a cursor the listing resumes after it.
+     */
+    List<BookingInfoDto> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                      BookingCursor cursor, int offset, int limit);
+
+    /**
+     * Same listing over booking_archive.
+     */
+    List<BookingInfoDto> findArchivedBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                              BookingCursor cursor, int offset, int limit);
+
+    /**
+     * Counts over both the booking table and booking_archive.
+     */
+    Map<BookingStatus, Long> countByStatus(BookingRole role, Long userId);
+
+    /**
+     * Start and end of the bookings that have not ended before {@code now}.
+     */
+    List<BookingSpan> findOpenSpans(BookingRole role, Long userId, LocalDateTime now);
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserInfoDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    private static final String ID = "id";
+    private static final String START = "start";
+    private static final String END = "end";
+    private static final String STATUS = "status";
+    private static final String ITEM_ID = "itemId";
+    private static final String ITEM_NAME = "itemName";
+    private static final String BOOKER_ID = "bookerId";
+    private static final String BOOKER_NAME = "bookerName";
+    private static final String OWNER = "owner";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingInfoDto> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                             BookingCursor cursor, int offset, int limit) {
+        return findBookings(Booking.class, role, userId, state, now, cursor, offset, limit);
+    }
+
+    @Override
+    public List<BookingInfoDto> findArchivedBookings(BookingRole role, Long userId, BookingState state,
+                                                     LocalDateTime now, BookingCursor cursor, int offset, int limit) {
+        return findBookings(ArchivedBooking.class, role, userId, state, now, cursor, offset, limit);
+    }
+
+    private <T> List<BookingInfoDto> findBookings(Class<T> entity, BookingRole role, Long userId, BookingState state,
+                                                  LocalDateTime now, BookingCursor cursor, int offset, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> booking = query.from(entity);
+        Join<T, Item> item = booking.join("item");
+        Join<T, User> booker = booking.join("booker");
+        Path<Long> id = booking.get(ID);
+        Path<LocalDateTime> start = booking.get(START);
+        Path<LocalDateTime> end = booking.get(END);
+        Path<BookingStatus> status = booking.get(STATUS);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(role == BookingRole.OWNER
+                ? builder.equal(item.get(OWNER).get(ID), userId)
+                : builder.equal(booker.get(ID), userId));
+        switch (state) {
+            case CURRENT:
+                predicates.add(builder.lessThan(start, now));
+                predicates.add(builder.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(builder.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(builder.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(builder.equal(status, BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(builder.equal(status, BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+        if (cursor != null) {
+            predicates.add(builder.or(
+                    builder.lessThan(start, cursor.getStart()),
+                    builder.and(builder.equal(start, cursor.getStart()), builder.lessThan(id, cursor.getId()))));
+        }
+
+        query.multiselect(
+                        id.alias(ID),
+                        start.alias(START),
+                        end.alias(END),
+                        status.alias(STATUS),
+                        item.get(ID).alias(ITEM_ID),
+                        item.get("name").alias(ITEM_NAME),
+                        booker.get(ID).alias(BOOKER_ID),
+                        booker.get("name").alias(BOOKER_NAME))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(start), builder.desc(id));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(BookingQueryRepositoryImpl::toBookingInfoDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<BookingStatus, Long> countByStatus(BookingRole role, Long userId) {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        countByStatus(Booking.class, role, userId, counts);
+        countByStatus(ArchivedBooking.class, role, userId, counts);
+        return counts;
+    }
+
+    private <T> void countByStatus(Class<T> entity, BookingRole role, Long userId, Map<BookingStatus, Long> counts) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> booking = query.from(entity);
+        Path<BookingStatus> status = booking.get(STATUS);
+
+        query.multiselect(status.alias(STATUS), builder.count(booking).alias(ID))
+                .where(belongsTo(builder, booking, role, userId))
+                .groupBy(status);
+
+        entityManager.createQuery(query)
+                .getResultList()
+                .forEach(tuple -> counts.merge(tuple.get(STATUS, BookingStatus.class), tuple.get(ID, Long.class),
+                        Long::sum));
+    }
+
+    @Override
+    public List<BookingSpan> findOpenSpans(BookingRole role, Long userId, LocalDateTime now) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingSpan> query = builder.createQuery(BookingSpan.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Path<LocalDateTime> start = booking.get(START);
+        Path<LocalDateTime> end = booking.get(END);
+
+        query.select(builder.construct(BookingSpan.class, start, end))
+                .where(belongsTo(builder, booking, role, userId), builder.greaterThanOrEqualTo(end, now));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Predicate belongsTo(CriteriaBuilder builder, Root<?> booking, BookingRole role,
+                                       Long userId) {
+        return role == BookingRole.OWNER
+                ? builder.equal(booking.get("item").get(OWNER).get(ID), userId)
+                : builder.equal(booking.get("booker").get(ID), userId);
+    }
+
+    private static BookingInfoDto toBookingInfoDto(Tuple tuple) {
+        return BookingInfoDto.builder()
+                .id(tuple.get(ID, Long.class))
+                .start(tuple.get(START, LocalDateTime.class))
+                .end(tuple.get(END, LocalDateTime.class))
+                .status(tuple.get(STATUS, BookingStatus.class))
+                .item(ItemInfoDto.builder()
+                        .id(tuple.get(ITEM_ID, Long.class))
+                        .name(tuple.get(ITEM_NAME, String.class))
+                        .build())
+                .booker(UserInfoDto.builder()
+                        .id(tuple.get(BOOKER_ID, Long.class))
+                        .name(tuple.get(BOOKER_NAME, String.class))
+                        .build())
+                .build();
+    }
+}
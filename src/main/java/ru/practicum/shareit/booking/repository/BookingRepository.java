@@ -1,40 +1,83 @@
 package ru.practicum.shareit.booking.repository;
 
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.enums.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndIsBefore(Long userId, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByBookerIdAndStartIsAfter(Long userId, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime dateTime, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByBookerIdAndStatus(Long userId, BookingStatus bookingStatus);
-
-    List<Booking> findAllByItem_Owner_IdOrderByStartDesc(Long userId, Pageable pageable);
-
-    List<Booking> findAllByItem_Owner_IdAndEndIsBefore(Long userId, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByItem_Owner_IdAndStartIsAfter(Long userId, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime dateTime, LocalDateTime date, Sort sort);
-
-    List<Booking> findAllByItem_Owner_IdAndStatus(Long userId, BookingStatus bookingStatus);
-
-    List<Booking> findAllByItemIdOrderByStartAsc(Long itemId);
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status IN :statuses AND b.start < :end AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end,
+                              @Param("statuses") Collection<BookingStatus> statuses);
 
     List<Booking> findByBooker_IdAndItem_IdOrderByStartAsc(Long userId, Long itemId);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH i.owner JOIN FETCH b.booker WHERE b.id IN :ids")
+    List<Booking> findAllWithItemOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Guarded bulk transition. Clears the persistence context, so loaded bookings are detached afterwards and
+     * never flushed with their stale version.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker " +
+            "WHERE b.item.id = :itemId AND b.id <> :bookingId " +
+            "AND b.status = ru.practicum.shareit.enums.BookingStatus.WAITING AND b.start < :end AND b.end > :start")
+    List<Booking> findOverlappingWaiting(@Param("itemId") Long itemId,
+                                         @Param("bookingId") Long bookingId,
+                                         @Param("start") LocalDateTime start,
+                                         @Param("end") LocalDateTime end);
+
+    /**
+     * Rejects the WAITING bookings of an item that overlap the given window, except the booking itself.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.enums.BookingStatus.REJECTED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.item.id = :itemId AND b.id <> :bookingId " +
+            "AND b.status = ru.practicum.shareit.enums.BookingStatus.WAITING AND b.start < :end AND b.end > :start")
+    int rejectOverlappingWaiting(@Param("itemId") Long itemId,
+                                 @Param("bookingId") Long bookingId,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.status IN :statuses AND b.end > :date")
+    List<Booking> findAllByStatusInAndEndIsAfter(@Param("statuses") Collection<BookingStatus> statuses,
+                                                 @Param("date") LocalDateTime date);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.id IN :itemIds AND b.status <> :excluded " +
+            "AND b.start = (SELECT MAX(b2.start) FROM Booking b2 " +
+            "WHERE b2.item.id = b.item.id AND b2.status <> :excluded AND b2.start < :now)")
+    List<Booking> findLastBookings(@Param("itemIds") Collection<Long> itemIds,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("excluded") BookingStatus excluded);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker " +
+            "WHERE b.item.id IN :itemIds AND b.status <> :excluded " +
+            "AND b.start = (SELECT MIN(b2.start) FROM Booking b2 " +
+            "WHERE b2.item.id = b.item.id AND b2.status <> :excluded AND b2.start > :now)")
+    List<Booking> findNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("excluded") BookingStatus excluded);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class BookingSpan {
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Status changes for many bookings in one JDBC batch. A row only changes while it still has the status and
+ * version it was loaded with, so the per-row counts tell which changes lost a race with another writer.
+ * Drivers may report {@link Statement#SUCCESS_NO_INFO} instead of a count; those rows are re-read and count as
+ * changed when they now hold the new status at the next version.
+ * Like the JPQL bulk updates it clears the persistence context, so the loaded bookings are never flushed again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingStatusBatchRepository {
+
+    private static final String UPDATE_STATUS = "UPDATE booking SET status = :status, version = version + 1 " +
+            "WHERE id = :id AND status = :expected AND version = :version";
+    private static final String SELECT_STATUS = "SELECT id, status, version FROM booking WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return ids of the bookings that were changed
+     */
+    public Set<Long> updateStatuses(List<Booking> bookings, Map<Long, BookingStatus> statuses) {
+        if (bookings.isEmpty()) {
+            return Set.of();
+        }
+        List<MapSqlParameterSource> rows = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", booking.getId())
+                    .addValue("status", statuses.get(booking.getId()).name())
+                    .addValue("expected", booking.getStatus().name())
+                    .addValue("version", booking.getVersion()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS, rows.toArray(new MapSqlParameterSource[0]));
+        Set<Long> updated = new HashSet<>();
+        List<Booking> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updated.add(bookings.get(i).getId());
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(bookings.get(i));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            updated.addAll(findChanged(unknown, statuses));
+        }
+        return updated;
+    }
+
+    private Set<Long> findChanged(List<Booking> bookings, Map<Long, BookingStatus> statuses) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Booking booking : bookings) {
+            versions.put(booking.getId(), booking.getVersion());
+        }
+        Set<Long> changed = new HashSet<>();
+        jdbcTemplate.query(SELECT_STATUS, new MapSqlParameterSource("ids", versions.keySet()), rs -> {
+            long id = rs.getLong("id");
+            if (statuses.get(id).name().equals(rs.getString("status"))
+                    && rs.getLong("version") == versions.get(id) + 1) {
+                changed.add(id);
+            }
+        });
+        return changed;
+    }
+}
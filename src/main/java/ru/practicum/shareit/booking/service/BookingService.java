@@ -1,30 +1,55 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.lock.BookingLockProvider;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingCursor;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStatusBatchRepository;
 import ru.practicum.shareit.booking.validator.BookingValidator;
+import ru.practicum.shareit.enums.BookingRole;
 import ru.practicum.shareit.enums.BookingState;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.InvalidEntityException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UnknownBookingState;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.retry.OptimisticRetry;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserJpaRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,10 +59,37 @@ public class BookingService {
     private static final String USER_ERROR = "User not found.";
     private static final String ITEM_ERROR = "Item not found.";
     private static final String BOOKING_ERROR = "Booking not found.";
+    private static final String OVERLAP_ERROR = "Item is already booked for this period.";
+    private static final String NOT_OWNER_ERROR = "Unable to approve booking. User is not owner for this item.";
+    private static final String EXPIRED_ERROR = "Booking has expired.";
+    private static final String CONCURRENT_ERROR = "Booking was modified concurrently.";
+    static final int MAX_DECISIONS = 500;
+    static final int MAX_ARCHIVE_OFFSET = 1000;
+    private static final Set<BookingState> ARCHIVED_STATES =
+            EnumSet.of(BookingState.ALL, BookingState.PAST, BookingState.WAITING, BookingState.REJECTED);
+    private static final Comparator<BookingInfoDto> NEWEST_FIRST = Comparator
+            .comparing(BookingInfoDto::getStart)
+            .thenComparing(BookingInfoDto::getId)
+            .reversed();
 
     private final BookingRepository repository;
     private final UserJpaRepository userRepository;
     private final ItemJpaRepository itemRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingLockProvider bookingLocks;
+    private final ItemDetailsCache itemCache;
+    private final BookingLifecycleScheduler lifecycle;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingArchiver archiver;
+    private final OptimisticRetry retry;
+    private final BookingStatusBatchRepository statusBatchRepository;
+    private final ArchivedBookingRepository archivedRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIntervalIndex() {
+        intervalIndex.rebuild(repository.findAllByStatusInAndEndIsAfter(BookingIntervalIndex.BLOCKING_STATUSES,
+                LocalDateTime.now()));
+    }
 
     @Transactional
     public BookingInfoDto addBooking(Long userId, BookingDto bookingDto) {
@@ -64,10 +116,22 @@ public class BookingService {
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
 
-        return BookingMapper.toBookingInfoDto(repository.save(booking));
+        return bookingLocks.withItemLock(item.getId(), () -> {
+            if (!bookingLocks.isFree(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new BookingConflictException(OVERLAP_ERROR);
+            }
+            return saveBooking(booking, null);
+        });
     }
 
+    /**
+     * Read-modify-write of one booking under its version; a concurrent change re-runs it from a fresh read.
+     */
     public BookingInfoDto updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
+        return retry.execute(() -> changeBookingStatus(userId, bookingId, approved));
+    }
+
+    private BookingInfoDto changeBookingStatus(Long userId, Long bookingId, Boolean approved) {
 
         Booking booking = repository.findById(bookingId)
                 .orElseThrow(() ->
@@ -79,7 +143,7 @@ public class BookingService {
         Item item = booking.getItem();
 
         if (!item.getOwner().getId().equals(userId)) {
-            throw new ObjectNotFoundException("Unable to approve booking. User is not owner for this item.");
+            throw new ObjectNotFoundException(NOT_OWNER_ERROR);
         }
 
         BookingStatus bookingStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
@@ -88,13 +152,189 @@ public class BookingService {
             throw new InvalidEntityException("Status already " + bookingStatus);
         }
 
-        booking.setStatus(bookingStatus);
+        if (booking.getStatus() == BookingStatus.EXPIRED) {
+            throw new InvalidEntityException(EXPIRED_ERROR);
+        }
+
+        return bookingLocks.withItemLock(item.getId(), () -> {
+            if (bookingStatus == BookingStatus.APPROVED
+                    && !bookingLocks.isFreeOfApproved(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new BookingConflictException(OVERLAP_ERROR);
+            }
+            BookingStatus previousStatus = booking.getStatus();
+            booking.setStatus(bookingStatus);
+            if (bookingStatus == BookingStatus.APPROVED) {
+                rejectOverlappingWaiting(booking);
+            }
+            return saveBooking(booking, previousStatus);
+        });
+    }
+
+    /**
+     * Saves a booking and publishes it to the interval index and the lifecycle scheduler once it commits. Callers
+     * hold the item lock, which is released only after that, so the overlap check and the write are atomic per item.
+     */
+    private BookingInfoDto saveBooking(Booking booking, BookingStatus previousStatus) {
+        Booking savedBooking = repository.saveAndFlush(booking);
+        AfterCommit.run(() -> {
+            intervalIndex.put(savedBooking);
+            lifecycle.track(savedBooking);
+            itemCache.invalidateBookings(savedBooking.getItem().getId());
+        });
+        BookingInfoDto bookingInfo = BookingMapper.toBookingInfoDto(savedBooking);
+        publishChange(savedBooking.getItem().getOwner().getId(), bookingInfo, previousStatus);
+        return bookingInfo;
+    }
+
+    private void publishChange(Long ownerId, BookingInfoDto bookingInfo, BookingStatus previousStatus) {
+        eventPublisher.publishEvent(new BookingChangedEvent(ownerId, bookingInfo, previousStatus));
+    }
+
+    /**
+     * Rejects the waiting bookings that overlap a booking being approved, with one set-based update.
+     * Callers hold the item lock.
+     */
+    private void rejectOverlappingWaiting(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        List<Booking> overlapping = repository.findOverlappingWaiting(itemId, booking.getId(), booking.getStart(),
+                booking.getEnd());
+        if (overlapping.isEmpty()) {
+            return;
+        }
+        repository.rejectOverlappingWaiting(itemId, booking.getId(), booking.getStart(), booking.getEnd());
+        AfterCommit.run(() -> intervalIndex.rejectOverlappingWaiting(itemId, booking.getId(), booking.getStart(),
+                booking.getEnd()));
+        for (Booking rejected : overlapping) {
+            BookingInfoDto bookingInfo = BookingMapper.toBookingInfoDto(rejected);
+            bookingInfo.setStatus(BookingStatus.REJECTED);
+            publishChange(booking.getItem().getOwner().getId(), bookingInfo, BookingStatus.WAITING);
+        }
+    }
+
+    /**
+     * Approves or rejects many bookings of one owner. Bookings and their items are loaded with one query,
+     * the items are locked together, and the status changes go out as one JDBC batch guarded by the status and
+     * version each booking was loaded with; rows that changed meanwhile are reported as errors.
+     * Approvals reject overlapping waiting bookings like single approvals do. Failing decisions are reported
+     * per booking and do not affect the others.
+     */
+    @Transactional
+    public List<BookingDecisionResult> updateBookingStatuses(Long userId, List<BookingDecisionDto> decisions) {
+        if (decisions.size() > MAX_DECISIONS) {
+            throw new InvalidEntityException("Too many bookings in one batch.");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ObjectNotFoundException(USER_ERROR);
+        }
+
+        Set<Long> bookingIds = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingIds.isEmpty() ? Map.of()
+                : repository.findAllWithItemOwnerByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> itemIds = bookings.values().stream()
+                .filter(booking -> booking.getItem().getOwner().getId().equals(userId))
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+
+        return bookingLocks.withItemLocks(itemIds, () -> applyDecisions(userId, decisions, bookings));
+    }
+
+    private List<BookingDecisionResult> applyDecisions(Long userId, List<BookingDecisionDto> decisions,
+                                                       Map<Long, Booking> bookings) {
+        String[] errors = new String[decisions.size()];
+        Map<Long, BookingStatus> changes = new HashMap<>();
+        Map<Long, Integer> decisionIndex = new HashMap<>();
+        Map<Long, List<Booking>> approvedInBatch = new HashMap<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                errors[i] = "Booking id and approved are required.";
+                continue;
+            }
+            Booking booking = bookings.get(decision.getBookingId());
+            BookingStatus bookingStatus = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (changes.containsKey(decision.getBookingId())) {
+                errors[i] = "Duplicate booking.";
+            } else if (booking == null) {
+                errors[i] = BOOKING_ERROR;
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                errors[i] = NOT_OWNER_ERROR;
+            } else if (booking.getStatus() == bookingStatus) {
+                errors[i] = "Status already " + bookingStatus;
+            } else if (booking.getStatus() == BookingStatus.EXPIRED) {
+                errors[i] = EXPIRED_ERROR;
+            } else if (bookingStatus == BookingStatus.APPROVED && !isFreeToApprove(booking, approvedInBatch)) {
+                errors[i] = OVERLAP_ERROR;
+            } else {
+                changes.put(booking.getId(), bookingStatus);
+                decisionIndex.put(booking.getId(), i);
+                if (bookingStatus == BookingStatus.APPROVED) {
+                    approvedInBatch.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+                }
+            }
+        }
+
+        List<Booking> changed = changes.keySet().stream()
+                .map(bookings::get)
+                .collect(Collectors.toList());
+        Set<Long> updated = statusBatchRepository.updateStatuses(changed, changes);
+        for (Booking booking : changed) {
+            if (!updated.contains(booking.getId())) {
+                errors[decisionIndex.get(booking.getId())] = CONCURRENT_ERROR;
+                changes.remove(booking.getId());
+                List<Booking> approved = approvedInBatch.get(booking.getItem().getId());
+                if (approved != null) {
+                    approved.remove(booking);
+                }
+            }
+        }
+        approvedInBatch.values().forEach(approved -> approved.forEach(this::rejectOverlappingWaiting));
+
+        Set<Long> changedItems = new HashSet<>();
+        for (Map.Entry<Long, BookingStatus> change : changes.entrySet()) {
+            Booking booking = bookings.get(change.getKey());
+            BookingStatus previousStatus = booking.getStatus();
+            booking.setStatus(change.getValue());
+            AfterCommit.run(() -> {
+                intervalIndex.put(booking);
+                lifecycle.track(booking);
+            });
+            changedItems.add(booking.getItem().getId());
+            publishChange(userId, BookingMapper.toBookingInfoDto(booking), previousStatus);
+        }
+        AfterCommit.run(() -> changedItems.forEach(itemCache::invalidateBookings));
+
+        List<BookingDecisionResult> results = new ArrayList<>(decisions.size());
+        for (int i = 0; i < decisions.size(); i++) {
+            Long bookingId = decisions.get(i).getBookingId();
+            results.add(BookingDecisionResult.builder()
+                    .bookingId(bookingId)
+                    .booking(errors[i] == null ? BookingMapper.toBookingInfoDto(bookings.get(bookingId)) : null)
+                    .error(errors[i])
+                    .build());
+        }
+        return results;
+    }
 
-        return BookingMapper.toBookingInfoDto(repository.save(booking));
+    private boolean isFreeToApprove(Booking booking, Map<Long, List<Booking>> approvedInBatch) {
+        Long itemId = booking.getItem().getId();
+        if (!bookingLocks.isFreeOfApproved(itemId, booking.getStart(), booking.getEnd())) {
+            return false;
+        }
+        return approvedInBatch.getOrDefault(itemId, List.of()).stream()
+                .noneMatch(other -> other.getStart().isBefore(booking.getEnd())
+                        && booking.getStart().isBefore(other.getEnd()));
     }
 
+    /**
+     * Looks the booking up in the hot table first and falls back to the archive, so archiving never hides it.
+     */
     public BookingInfoDto getCurrentBooking(Long userId, Long bookingId) {
         Booking booking = repository.findById(bookingId)
+                .or(() -> archivedRepository.findById(bookingId).map(BookingMapper::toBooking))
                 .orElseThrow(() ->
                         new ObjectNotFoundException(BOOKING_ERROR));
 
@@ -106,85 +346,77 @@ public class BookingService {
         return BookingMapper.toBookingInfoDto(booking);
     }
 
-    public List<BookingInfoDto> getBooking(Long userId, String stateParam, Integer from, Integer size) {
-
-        if (from < 0 || size < 0) {
-            throw new InvalidEntityException("Arguments can't be negative.");
-        }
-
-        BookingState bookingState = checkState(stateParam);
-
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookingList = new ArrayList<>();
-        LocalDateTime dateTimeNow = LocalDateTime.now();
-
-        User user = userRepository.findById(userId).orElseThrow(()
-                -> new ObjectNotFoundException(USER_ERROR));
-
-        switch (bookingState) {
-            case ALL:
-                bookingList = repository.findAllByBookerIdOrderByStartDesc(user.getId(), PageRequest.of((from / size), size));
-                break;
-            case PAST:
-                bookingList = repository.findAllByBookerIdAndEndIsBefore(user.getId(), dateTimeNow, sort);
-                break;
-            case FUTURE:
-                bookingList = repository.findAllByBookerIdAndStartIsAfter(user.getId(), dateTimeNow, sort);
-                break;
-            case CURRENT:
-                bookingList = repository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(user.getId(), dateTimeNow, dateTimeNow, sort);
-                break;
-            case WAITING:
-                bookingList = repository.findAllByBookerIdAndStatus(user.getId(), BookingStatus.WAITING);
-                break;
-            case REJECTED:
-                bookingList = repository.findAllByBookerIdAndStatus(user.getId(), BookingStatus.REJECTED);
-                break;
-        }
-
-        return bookingList.isEmpty() ? Collections.emptyList() : bookingList.stream()
-                .map(BookingMapper::toBookingInfoDto)
-                .collect(Collectors.toList());
+    public CursorPage<BookingInfoDto> getBooking(Long userId, String stateParam, Integer from, Integer size,
+                                                 String cursor) {
+        return getBookingPage(BookingRole.BOOKER, userId, stateParam, from, size, cursor);
     }
 
-    public List<BookingInfoDto> getOwnerBooking(Long userId, String stateParam, Integer from, Integer size) {
+    public CursorPage<BookingInfoDto> getOwnerBooking(Long userId, String stateParam, Integer from, Integer size,
+                                                      String cursor) {
+        return getBookingPage(BookingRole.OWNER, userId, stateParam, from, size, cursor);
+    }
 
+    /**
+     * Pages bookings newest first by (start, id). Without a cursor the legacy {@code from} offset is used;
+     * with one, the page starts right after the cursor position and {@code from} is ignored. The offset is
+     * aligned to the requested {@code size}, so a size above the cap still starts where the client asked.
+     */
+    private CursorPage<BookingInfoDto> getBookingPage(BookingRole role, Long userId, String stateParam,
+                                                      Integer from, Integer size, String cursor) {
         if (from < 0 || size < 0) {
             throw new InvalidEntityException("Arguments can't be negative.");
         }
 
         BookingState bookingState = checkState(stateParam);
-
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        List<Booking> bookingList = new ArrayList<>();
-        LocalDateTime dateTimeNow = LocalDateTime.now();
+        int pageSize = PageCursor.pageSize(size);
+        BookingCursor position = cursor != null ? BookingCursor.decode(cursor) : null;
+        int offset = position != null ? 0 : from / size * size;
 
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException(USER_ERROR));
 
-        switch (bookingState) {
-            case ALL:
-                bookingList = repository.findAllByItem_Owner_IdOrderByStartDesc(user.getId(), PageRequest.of((from / size), size));
-                break;
-            case PAST:
-                bookingList = repository.findAllByItem_Owner_IdAndEndIsBefore(user.getId(), dateTimeNow, sort);
-                break;
-            case FUTURE:
-                bookingList = repository.findAllByItem_Owner_IdAndStartIsAfter(user.getId(), dateTimeNow, sort);
-                break;
-            case CURRENT:
-                bookingList = repository.findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(user.getId(), dateTimeNow, dateTimeNow, sort);
-                break;
-            case WAITING:
-                bookingList = repository.findAllByItem_Owner_IdAndStatus(user.getId(), BookingStatus.WAITING);
-                break;
-            case REJECTED:
-                bookingList = repository.findAllByItem_Owner_IdAndStatus(user.getId(), BookingStatus.REJECTED);
-                break;
-        }
-
-        return bookingList.isEmpty() ? Collections.emptyList() : bookingList.stream()
-                .map(BookingMapper::toBookingInfoDto)
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingInfoDto> bookings = repository.findBookings(role, user.getId(), bookingState, now, position,
+                offset, pageSize);
+        if (ARCHIVED_STATES.contains(bookingState) && !isServedByHotTable(bookings, pageSize)) {
+            bookings = findWithArchive(role, user.getId(), bookingState, now, position, offset, pageSize, bookings);
+        }
+
+        String nextCursor = null;
+        if (bookings.size() == pageSize) {
+            BookingInfoDto last = bookings.get(pageSize - 1);
+            nextCursor = new BookingCursor(last.getStart(), last.getId()).encode();
+        }
+        return new CursorPage<>(bookings, nextCursor);
+    }
+
+    /**
+     * Archived bookings all started before the archive horizon, so a full page whose last booking starts at
+     * or after it cannot contain any of them.
+     */
+    private boolean isServedByHotTable(List<BookingInfoDto> bookings, int pageSize) {
+        return bookings.size() == pageSize && !bookings.get(pageSize - 1).getStart().isBefore(archiver.horizon());
+    }
+
+    /**
+     * Merges the hot and archived listings. Both are read from the start of the position, since an offset
+     * cannot be split between two tables; with a cursor the offset is zero and the hot page is reused.
+     * Both reads grow with the offset, so deep offsets are refused in favour of the cursor.
+     */
+    private List<BookingInfoDto> findWithArchive(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                                 BookingCursor position, int offset, int pageSize,
+                                                 List<BookingInfoDto> hotPage) {
+        if (offset > MAX_ARCHIVE_OFFSET) {
+            throw new InvalidEntityException(String.format(
+                    "Offset over %d is not supported for %s bookings, use the cursor.", MAX_ARCHIVE_OFFSET, state));
+        }
+        List<BookingInfoDto> bookings = new ArrayList<>(offset == 0 ? hotPage
+                : repository.findBookings(role, userId, state, now, position, 0, offset + pageSize));
+        bookings.addAll(repository.findArchivedBookings(role, userId, state, now, position, 0, offset + pageSize));
+        return bookings.stream()
+                .sorted(NEWEST_FIRST)
+                .skip(offset)
+                .limit(pageSize)
                 .collect(Collectors.toList());
     }
 
@@ -195,4 +427,4 @@ public class BookingService {
             throw new UnknownBookingState(String.format("Unknown state: %s", state));
         }
     }
-}
\ No newline at end of file
+}
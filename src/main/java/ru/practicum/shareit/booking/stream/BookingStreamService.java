@@ -0,0 +1,236 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleEvent;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes booking changes of an owner's items to the owner's open SSE connections. Events are queued per
+ * subscriber in a bounded buffer and written by a small sender pool, so publishers never block on the network.
+ * A subscriber whose buffer overflows is disconnected; the client reconnects and reloads its bookings.
+ * Each drain sends a bounded batch before yielding its sender thread, and a watchdog drops a subscriber whose
+ * send blocks past the send timeout and interrupts its sender, so stalled clients cannot starve the pool.
+ */
+@Service
+public class BookingStreamService {
+
+    static final String EVENT_NAME = "booking";
+    static final int DRAIN_BATCH = 32;
+
+    private final UserJpaRepository userRepository;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService watchdog;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingStreamService(UserJpaRepository userRepository,
+                                @Value("${shareit.booking.stream.buffer-size:256}") int bufferSize,
+                                @Value("${shareit.booking.stream.timeout:PT30M}") Duration timeout,
+                                @Value("${shareit.booking.stream.send-timeout:PT10S}") Duration sendTimeout,
+                                @Value("${shareit.booking.stream.threads:4}") int threads) {
+        this(userRepository, bufferSize, timeout, sendTimeout,
+                Executors.newFixedThreadPool(threads, threads("booking-stream-")));
+    }
+
+    BookingStreamService(UserJpaRepository userRepository, int bufferSize, Duration timeout, Duration sendTimeout,
+                         ExecutorService senders) {
+        this.userRepository = userRepository;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.senders = senders;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(threads("booking-stream-watchdog-"));
+        long period = Math.max(sendTimeoutMillis / 2, 1);
+        watchdog.scheduleWithFixedDelay(this::dropStalledSubscribers, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long ownerId) {
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new ObjectNotFoundException("User not found."));
+        return register(ownerId, new SseEmitter(timeoutMillis));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        publish(event.getOwnerId(), event.getBooking());
+    }
+
+    @EventListener
+    public void onBookingLifecycle(BookingLifecycleEvent event) {
+        event.getExpired().forEach(booking ->
+                publish(booking.getItem().getOwner().getId(), BookingMapper.toBookingInfoDto(booking)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    SseEmitter register(Long ownerId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(ownerId, emitter);
+        subscribers.compute(ownerId, (id, owned) -> {
+            Set<Subscriber> result = owned != null ? owned : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    int subscriberCount(Long ownerId) {
+        Set<Subscriber> owned = subscribers.get(ownerId);
+        return owned == null ? 0 : owned.size();
+    }
+
+    private void publish(Long ownerId, BookingInfoDto booking) {
+        Set<Subscriber> owned = subscribers.get(ownerId);
+        if (owned != null) {
+            owned.forEach(subscriber -> subscriber.offer(booking));
+        }
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        subscribers.values().forEach(owned -> owned.forEach(subscriber -> subscriber.dropIfStalled(now)));
+    }
+
+    private static CustomizableThreadFactory threads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private final class Subscriber {
+        private final Long ownerId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingInfoDto> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread sender;
+        private volatile long sendStartedAt;
+        private volatile boolean stalled;
+
+        private Subscriber(Long ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+
+        private void offer(BookingInfoDto booking) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(booking)) {
+                disconnect();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                BookingInfoDto booking;
+                for (int sent = 0; sent < DRAIN_BATCH && !closed.get() && (booking = queue.poll()) != null; sent++) {
+                    send(booking);
+                }
+            } catch (IOException | IllegalStateException exception) {
+                disconnect();
+            } finally {
+                draining.set(false);
+            }
+            if (stalled) {
+                emitter.complete();
+                return;
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(BookingInfoDto booking) throws IOException {
+            sender = Thread.currentThread();
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .id(String.valueOf(booking.getId()))
+                        .data(booking));
+            } finally {
+                sendStartedAt = 0;
+                sender = null;
+            }
+        }
+
+        /**
+         * Drops a subscriber stuck in one send past the send timeout and interrupts its sender thread. The emitter
+         * is completed by the sender once the send returns, since the emitter's monitor is held during the send.
+         */
+        private void dropIfStalled(long now) {
+            long startedAt = sendStartedAt;
+            Thread thread = sender;
+            if (startedAt == 0 || thread == null || now - startedAt <= sendTimeoutMillis) {
+                return;
+            }
+            stalled = true;
+            if (!close()) {
+                return;
+            }
+            if (sender == thread && sendStartedAt == startedAt) {
+                thread.interrupt();
+            }
+        }
+
+        private void disconnect() {
+            if (close()) {
+                emitter.complete();
+            }
+        }
+
+        private boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            queue.clear();
+            subscribers.computeIfPresent(ownerId, (id, owned) -> {
+                owned.remove(this);
+                return owned.isEmpty() ? null : owned;
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through LRU cache with a maximum size and a time-to-live per entry.
+ * Values loaded while an invalidation happens are returned to the caller but not stored.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public BoundedCache(int maxSize, Duration ttl, LongSupplier ticker) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long generation;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - ticker.getAsLong() > 0) {
+                    hits++;
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            generation = invalidations;
+        }
+        V value = loader.apply(key);
+        synchronized (this) {
+            if (generation == invalidations && value != null) {
+                entries.put(key, new Entry<>(value, ticker.getAsLong() + ttlNanos));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Mutates a cached value in place. When the key is not cached, loads in flight are discarded as on
+     * {@link #invalidate}, so a value read before the change is never stored.
+     */
+    public synchronized void update(K key, Consumer<? super V> updater) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.expiresAt - ticker.getAsLong() <= 0) {
+            invalidate(key);
+            return;
+        }
+        updater.accept(entry.value);
+    }
+
+    public synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, entries.size());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
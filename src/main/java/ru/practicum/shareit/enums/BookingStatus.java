@@ -4,7 +4,8 @@ public enum BookingStatus {
     APPROVED("approved"),
     WAITING("waiting"),
     REJECTED("rejected"),
-    CANCELED("canceled");
+    CANCELED("canceled"),
+    EXPIRED("expired");
 
     private String name;
 
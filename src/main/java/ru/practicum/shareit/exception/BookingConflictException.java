@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
@@ -21,6 +21,24 @@ public class ErrorHandler {
         return Map.of("409 ENTITY ALREADY EXISTS", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleBookingConflict(final BookingConflictException e) {
+        return Map.of("409 BOOKING CONFLICT", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConcurrentUpdate(final ConcurrentUpdateException e) {
+        return Map.of("409 CONCURRENT UPDATE", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public Map<String, String> handleIdempotencyKeyReused(final IdempotencyKeyReusedException e) {
+        return Map.of("422 IDEMPOTENCY KEY REUSED", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleBadRequestException(final InvalidEntityException e) {
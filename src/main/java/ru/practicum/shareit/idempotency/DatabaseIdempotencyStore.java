@@ -0,0 +1,133 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-safe store: the key row is inserted in the same transaction as the write it guards, so the write and
+ * its stored response commit or roll back together. A concurrent insert of the same key on another node blocks on
+ * the primary key until that transaction ends and then reads the committed response.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "database")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final String KEY_CONDITION =
+            "scope = :scope AND user_id = :userId AND idempotency_key = :key";
+    private static final String SELECT_RESPONSE =
+            "SELECT fingerprint, response FROM idempotency_key WHERE " + KEY_CONDITION + " AND created_at >= :since";
+    private static final String DELETE_EXPIRED_KEY =
+            "DELETE FROM idempotency_key WHERE " + KEY_CONDITION + " AND created_at < :since";
+    private static final String INSERT_KEY =
+            "INSERT INTO idempotency_key (scope, user_id, idempotency_key, fingerprint, created_at) " +
+                    "VALUES (:scope, :userId, :key, :fingerprint, :now)";
+    private static final String UPDATE_RESPONSE =
+            "UPDATE idempotency_key SET response = :response WHERE " + KEY_CONDITION;
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_key WHERE created_at < :since";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public DatabaseIdempotencyStore(NamedParameterJdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public <T> T execute(IdempotencyKey key, String fingerprint, Class<T> responseType, Supplier<T> action) {
+        Optional<T> stored = find(key, fingerprint, responseType);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                jdbcTemplate.update(DELETE_EXPIRED_KEY, parameters(key).addValue("since", now.minus(ttl)));
+                jdbcTemplate.update(INSERT_KEY, parameters(key)
+                        .addValue("fingerprint", fingerprint)
+                        .addValue("now", now));
+                T response = action.get();
+                jdbcTemplate.update(UPDATE_RESPONSE, parameters(key).addValue("response", write(response)));
+                return response;
+            });
+        } catch (DuplicateKeyException e) {
+            return find(key, fingerprint, responseType).orElseThrow(() -> e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.purge-interval:PT10M}",
+            initialDelayString = "${shareit.idempotency.purge-interval:PT10M}")
+    public int purgeExpired() {
+        return jdbcTemplate.update(DELETE_EXPIRED,
+                new MapSqlParameterSource("since", LocalDateTime.now().minus(ttl)));
+    }
+
+    private <T> Optional<T> find(IdempotencyKey key, String fingerprint, Class<T> responseType) {
+        List<StoredResponse> rows = jdbcTemplate.query(SELECT_RESPONSE,
+                parameters(key).addValue("since", LocalDateTime.now().minus(ttl)),
+                (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response")));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        StoredResponse row = rows.get(0);
+        if (!row.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency key was used for a different request.");
+        }
+        return Optional.of(read(row.body, responseType));
+    }
+
+    private static MapSqlParameterSource parameters(IdempotencyKey key) {
+        return new MapSqlParameterSource()
+                .addValue("scope", key.getScope())
+                .addValue("userId", key.getUserId())
+                .addValue("key", key.getKey());
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final String body;
+
+        private StoredResponse(String fingerprint, String body) {
+            this.fingerprint = fingerprint;
+            this.body = body;
+        }
+    }
+}
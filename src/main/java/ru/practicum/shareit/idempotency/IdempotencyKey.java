@@ -0,0 +1,20 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A client-supplied key is only unique per endpoint and user, so the stored response is looked up by all three.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    private final String scope;
+    private final Long userId;
+    private final String key;
+}
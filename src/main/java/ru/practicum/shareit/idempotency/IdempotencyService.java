@@ -0,0 +1,44 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.exception.InvalidEntityException;
+
+import java.util.function.Supplier;
+
+/**
+ * Answers retried writes that carry the same {@value #IDEMPOTENCY_KEY_HEADER} from the {@link IdempotencyStore}
+ * instead of running them again. Requests without the header are executed as usual.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    public <T> T execute(String key, String scope, Long userId, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidEntityException("Invalid idempotency key.");
+        }
+        return store.execute(new IdempotencyKey(scope, userId, key), fingerprint(request), responseType, action);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.idempotency;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response of a write by its idempotency key for a limited time.
+ * Selected with {@code shareit.idempotency.store}: {@code memory} for a single instance,
+ * {@code database} when several instances serve the same clients.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Returns the response stored for the key, or runs the action and stores its result. Concurrent calls with
+     * the same key run the action once; an action that throws stores nothing, so the client may retry.
+     *
+     * @throws ru.practicum.shareit.exception.IdempotencyKeyReusedException when the key was used for a request
+     *                                                                      with a different fingerprint
+     */
+    <T> T execute(IdempotencyKey key, String fingerprint, Class<T> responseType, Supplier<T> action);
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.SingleFlight;
+import ru.practicum.shareit.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps responses in a bounded LRU cache with a TTL; retries that arrive while the first call is still
+ * running wait for its result instead of writing again.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedCache<IdempotencyKey, StoredResponse> responses;
+    private final SingleFlight<IdempotencyKey, StoredResponse> calls = new SingleFlight<>();
+
+    public InMemoryIdempotencyStore(@Value("${shareit.idempotency.max-size:10000}") int maxSize,
+                                    @Value("${shareit.idempotency.ttl:PT24H}") Duration ttl) {
+        this.responses = new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public <T> T execute(IdempotencyKey key, String fingerprint, Class<T> responseType, Supplier<T> action) {
+        StoredResponse response = responses.get(key, ignored -> calls.execute(key,
+                call -> new StoredResponse(fingerprint, action.get())));
+        if (!response.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency key was used for a different request.");
+        }
+        return responseType.cast(response.body);
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final Object body;
+
+        private StoredResponse(String fingerprint, Object body) {
+            this.fingerprint = fingerprint;
+            this.body = body;
+        }
+    }
+}
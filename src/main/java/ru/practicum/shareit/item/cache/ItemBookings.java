@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ItemBookings {
+
+    private final BookingItemDto lastBooking;
+    private final BookingItemDto nextBooking;
+    private final LocalDateTime validUntil;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+
+@Getter
+@AllArgsConstructor
+public class ItemDetails {
+
+    private final ItemInfoDto item;
+    private final Long ownerId;
+}
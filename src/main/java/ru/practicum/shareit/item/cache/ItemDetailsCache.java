@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.cache.CacheStats;
+import ru.practicum.shareit.cache.SingleFlight;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of assembled item responses, split into the public part every user sees and the owner-only
+ * last/next booking part. The booking part also expires once its next booking starts.
+ * Concurrent misses for the same item share a single load.
+ */
+@Component
+public class ItemDetailsCache {
+
+    private final BoundedCache<Long, ItemDetails> details;
+    private final BoundedCache<Long, ItemBookings> bookings;
+    private final SingleFlight<Long, ItemDetails> detailsLoads = new SingleFlight<>();
+    private final SingleFlight<Long, ItemBookings> bookingsLoads = new SingleFlight<>();
+
+    public ItemDetailsCache(@Value("${shareit.cache.item.max-size:10000}") int maxSize,
+                            @Value("${shareit.cache.item.ttl:PT5M}") Duration ttl) {
+        this.details = new BoundedCache<>(maxSize, ttl);
+        this.bookings = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public ItemDetails getDetails(Long itemId, Function<Long, ItemDetails> loader) {
+        return details.get(itemId, id -> detailsLoads.execute(id, loader));
+    }
+
+    public ItemBookings getBookings(Long itemId, Function<Long, ItemBookings> loader) {
+        Function<Long, ItemBookings> sharedLoader = id -> bookingsLoads.execute(id, loader);
+        ItemBookings cached = bookings.get(itemId, sharedLoader);
+        if (cached.getValidUntil() == null || cached.getValidUntil().isAfter(LocalDateTime.now())) {
+            return cached;
+        }
+        bookings.invalidate(itemId);
+        return bookings.get(itemId, sharedLoader);
+    }
+
+    public void invalidate(Long itemId) {
+        invalidateDetails(itemId);
+        invalidateBookings(itemId);
+    }
+
+    public void invalidateDetails(Long itemId) {
+        detailsLoads.forget(itemId);
+        details.invalidate(itemId);
+    }
+
+    public void invalidateBookings(Long itemId) {
+        bookingsLoads.forget(itemId);
+        bookings.invalidate(itemId);
+    }
+
+    public void invalidateAll() {
+        detailsLoads.forgetAll();
+        bookingsLoads.forgetAll();
+        details.invalidateAll();
+        bookings.invalidateAll();
+    }
+
+    public Map<String, CacheStats> getStats() {
+        return Map.of("details", details.getStats(), "bookings", bookings.getStats());
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.cache.CacheStats;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+
+import java.util.Map;
+
+/**
+ * Hit, miss and eviction counters of the item response cache, keyed by cache part.
+ */
+@RestController
+@RequestMapping(path = "/items/cache")
+@RequiredArgsConstructor
+public class ItemCacheController {
+
+    private final ItemDetailsCache itemCache;
+
+    @GetMapping("/stats")
+    public Map<String, CacheStats> getStats() {
+        return itemCache.getStats();
+    }
+}
@@ -1,12 +1,24 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,12 +27,22 @@ import java.util.List;
 public class ItemController {
 
     private static final String USERID_HEADER = "X-Sharer-User-Id";
+    private static final String NDJSON = "application/x-ndjson";
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final IdempotencyService idempotencyService;
 
 
     @GetMapping
-    public List<ItemInfoDto> getItems(@RequestHeader(USERID_HEADER) Long userId) {
-        return itemService.getItems(userId);
+    public ResponseEntity<List<ItemInfoDto>> getItems(@RequestHeader(USERID_HEADER) Long userId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false, defaultValue = "10") Integer size) {
+        CursorPage<ItemInfoDto> page = itemService.getItems(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/{itemId}")
@@ -29,8 +51,24 @@ public class ItemController {
     }
 
     @PostMapping
-    public ItemDto addItem(@RequestHeader(USERID_HEADER) Long userId, @RequestBody ItemDto item) {
-        return itemService.addItem(userId, item);
+    public ItemDto addItem(@RequestHeader(USERID_HEADER) Long userId,
+                           @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false)
+                           String idempotencyKey,
+                           @RequestBody ItemDto item) {
+        return idempotencyService.execute(idempotencyKey, "POST /items", userId, item, ItemDto.class,
+                () -> itemService.addItem(userId, item));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ItemImportResult> importItems(@RequestHeader(USERID_HEADER) Long userId,
+                                              @RequestBody List<ItemDto> items) {
+        return itemImportService.importItems(userId, items);
+    }
+
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public List<ItemImportResult> importItemsStream(@RequestHeader(USERID_HEADER) Long userId,
+                                                    HttpServletRequest request) throws IOException {
+        return itemImportService.importItems(userId, request.getReader());
     }
 
     @PostMapping("/{itemId}/comment")
@@ -52,8 +90,33 @@ public class ItemController {
         itemService.deleteItem(itemId);
     }
 
+    /**
+     * Without {@code size} every match is returned, as before paging was added.
+     */
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(required = false, defaultValue = "0") Integer from,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false, defaultValue = "false") Boolean fuzzy,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return itemService.searchItems(text, from, size, fuzzy, start, end);
+    }
+
+    @GetMapping("/{itemId}/calendar")
+    public ItemCalendarDto getCalendar(@PathVariable Long itemId,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getCalendar(itemId, from, to);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(required = false, defaultValue = "10") Integer size) {
+        return itemService.suggestItemNames(prefix, size);
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for items. Identity ids disable Hibernate insert batching,
+ * so bulk imports go through a single batched statement and read the keys back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemBatchRepository {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO item (name, description, available, owner_id, request_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, new String[]{"id"})) {
+                for (Item item : items) {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setBoolean(3, item.getAvailable());
+                    statement.setLong(4, item.getOwner().getId());
+                    if (item.getRequest() != null) {
+                        statement.setLong(5, item.getRequest().getId());
+                    } else {
+                        statement.setNull(5, Types.BIGINT);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Item item : items) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Generated item ids are missing.");
+                        }
+                        item.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
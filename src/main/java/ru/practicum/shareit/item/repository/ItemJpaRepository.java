@@ -1,22 +1,34 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemJpaRepository extends JpaRepository<Item, Long> {
-    @Query("SELECT it FROM Item it " +
-            "WHERE (LOWER(it.name) LIKE LOWER(CONCAT('%', :text, '%') ) OR " +
-            "LOWER(it.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
-            "AND it.available = true")
-    List<Item> search(@Param("text") String text);
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Pageable pageable);
 
-    List<Item> findAllByOwnerId(Long ownerId);
+    List<Item> findAllByAvailableTrue();
 
-    List<Item> findAllByRequest_Id(Long requestId);
+    @Query("SELECT it.id FROM Item it WHERE it.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    List<Item> findAllByRequest_IdIn(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id IN :ids ORDER BY it.id")
+    List<Item> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Burkhard-Keller tree over words with Levenshtein distance. Not thread-safe, guarded by {@link ItemSearchIndex}.
+ * Removed words are marked deleted, since their nodes route searches to children; once deleted nodes
+ * outnumber live ones the tree is rebuilt from the live words.
+ */
+class BkTree {
+
+    private Node root;
+    private int size;
+    private int deleted;
+
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(node.word, word);
+            if (distance == 0) {
+                if (node.deleted) {
+                    node.deleted = false;
+                    deleted--;
+                    size++;
+                }
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    void search(String word, int maxDistance, ObjIntConsumer<String> consumer) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = distance(node.word, word);
+            if (distance <= maxDistance && !node.deleted) {
+                consumer.accept(node.word, distance);
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    stack.push(child.getValue());
+                }
+            }
+        }
+    }
+
+    void remove(String word) {
+        Node node = root;
+        while (node != null) {
+            int distance = distance(node.word, word);
+            if (distance == 0) {
+                if (!node.deleted) {
+                    node.deleted = true;
+                    deleted++;
+                    size--;
+                    if (deleted > size) {
+                        compact();
+                    }
+                }
+                return;
+            }
+            node = node.children.get(distance);
+        }
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+        deleted = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int deleted() {
+        return deleted;
+    }
+
+    private void compact() {
+        List<String> live = new ArrayList<>(size);
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!node.deleted) {
+                live.add(node.word);
+            }
+            node.children.values().forEach(stack::push);
+        }
+        clear();
+        live.forEach(this::add);
+    }
+
+    static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>();
+        private boolean deleted;
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * N-gram index over name and description of available items: queries up to {@link #GRAM_SIZE}
+ * characters are a single posting lookup, longer ones intersect their trigram postings.
+ * Matches are ranked by where and how often the query occurs, and only the requested page is kept.
+ * Fuzzy mode also matches name words within a small edit distance, comparing Cyrillic words by transliteration.
+ * Full names are additionally kept sorted to answer prefix completions.
+ */
+@Component
+public class ItemSearchIndex {
+
+    static final int GRAM_SIZE = 3;
+
+    private static final int NAME_WORD_SCORE = 20;
+    private static final int NAME_SUBSTRING_SCORE = 8;
+    private static final int DESCRIPTION_WORD_SCORE = 5;
+    private static final int DESCRIPTION_SUBSTRING_SCORE = 2;
+    private static final int FUZZY_SCORE = 4;
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final String CYRILLIC = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+    private static final String[] LATIN = {"a", "b", "v", "g", "d", "e", "e", "zh", "z", "i", "i", "k", "l", "m",
+            "n", "o", "p", "r", "s", "t", "u", "f", "h", "ts", "ch", "sh", "sch", "", "y", "", "e", "yu", "ya"};
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<ScoredItem> RANKING = Comparator
+            .comparingInt((ScoredItem scored) -> scored.score).reversed()
+            .thenComparing(scored -> scored.dto.getId());
+
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<String, Set<Long>> nameTokens = new HashMap<>();
+    private final BkTree tokenTree = new BkTree();
+    private final NavigableMap<String, Set<Long>> names = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void rebuild(Collection<Item> availableItems) {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            postings.clear();
+            nameTokens.clear();
+            tokenTree.clear();
+            names.clear();
+            availableItems.forEach(this::doPut);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            doRemove(item.getId());
+            doPut(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            doRemove(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeByOwner(Long ownerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ownedIds = items.values().stream()
+                    .filter(item -> ownerId.equals(item.ownerId))
+                    .map(item -> item.dto.getId())
+                    .collect(Collectors.toList());
+            ownedIds.forEach(this::doRemove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+        return search(text, from, size, false);
+    }
+
+    public List<ItemDto> search(String text, int from, int size, boolean fuzzy) {
+        return search(text, from, size, fuzzy, id -> true);
+    }
+
+    public List<ItemDto> search(String text, int from, int size, boolean fuzzy, Predicate<Long> filter) {
+        String query = normalize(text);
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        if (query.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = new HashMap<>();
+            for (Long id : candidates(query)) {
+                scores.put(id, items.get(id).score(query));
+            }
+            if (fuzzy) {
+                fuzzyScores(query).forEach((id, score) -> scores.merge(id, score, Integer::sum));
+            }
+            PriorityQueue<ScoredItem> top = new PriorityQueue<>(Math.min(limit, 1024), RANKING.reversed());
+            scores.forEach((id, score) -> {
+                if (score == 0 || !filter.test(id)) {
+                    return;
+                }
+                ScoredItem scored = new ScoredItem(items.get(id).dto, score);
+                if (top.size() < limit) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) < 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            });
+            return top.stream()
+                    .sorted(RANKING)
+                    .skip(from)
+                    .map(scored -> scored.dto)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<String> completions = new ArrayList<>(Math.min(size, 64));
+            for (Set<Long> ids : names.subMap(query, true, query + Character.MAX_VALUE, false).values()) {
+                completions.add(items.get(ids.iterator().next()).dto.getName());
+                if (completions.size() == size) {
+                    break;
+                }
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> fuzzyScores(String query) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (String queryToken : TOKEN_SEPARATOR.split(query)) {
+            int maxDistance = maxDistance(queryToken);
+            if (maxDistance == 0) {
+                continue;
+            }
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            for (String variant : new HashSet<>(List.of(queryToken, transliterate(queryToken)))) {
+                tokenTree.search(variant, maxDistance, (token, distance) -> {
+                    int score = FUZZY_SCORE * (maxDistance + 1 - distance);
+                    nameTokens.getOrDefault(token, Collections.emptySet())
+                            .forEach(id -> tokenScores.merge(id, score, Math::max));
+                });
+            }
+            tokenScores.forEach((id, score) -> scores.merge(id, score, Integer::sum));
+        }
+        return scores;
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() <= GRAM_SIZE) {
+            return postings.getOrDefault(query, Collections.emptySet());
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+            Set<Long> posting = postings.get(query.substring(i, i + GRAM_SIZE));
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void doPut(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem indexed = new IndexedItem(item);
+        items.put(item.getId(), indexed);
+        for (String gram : indexed.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(item.getId());
+        }
+        for (String token : indexed.nameTokens()) {
+            nameTokens.computeIfAbsent(token, key -> new HashSet<>()).add(item.getId());
+            tokenTree.add(token);
+        }
+        names.computeIfAbsent(indexed.name, key -> new TreeSet<>()).add(item.getId());
+    }
+
+    private void doRemove(Long itemId) {
+        IndexedItem indexed = items.remove(itemId);
+        if (indexed == null) {
+            return;
+        }
+        indexed.grams().forEach(gram -> removePosting(postings, gram, itemId));
+        for (String token : indexed.nameTokens()) {
+            removePosting(nameTokens, token, itemId);
+            if (!nameTokens.containsKey(token)) {
+                tokenTree.remove(token);
+            }
+        }
+        removePosting(names, indexed.name, itemId);
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String key, Long itemId) {
+        Set<Long> posting = index.get(key);
+        if (posting != null) {
+            posting.remove(itemId);
+            if (posting.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String transliterate(String token) {
+        StringBuilder result = new StringBuilder(token.length());
+        for (char symbol : token.toCharArray()) {
+            int position = CYRILLIC.indexOf(symbol);
+            if (position >= 0) {
+                result.append(LATIN[position]);
+            } else {
+                result.append(symbol);
+            }
+        }
+        return result.toString();
+    }
+
+    private static int maxDistance(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 4 ? 1 : MAX_EDIT_DISTANCE;
+    }
+
+    private static final class ScoredItem {
+        private final ItemDto dto;
+        private final int score;
+
+        private ScoredItem(ItemDto dto, int score) {
+            this.dto = dto;
+            this.score = score;
+        }
+    }
+
+    private static final class IndexedItem {
+        private final ItemDto dto;
+        private final Long ownerId;
+        private final String name;
+        private final String description;
+
+        private IndexedItem(Item item) {
+            this.dto = ItemMapper.toDto(item);
+            this.ownerId = item.getOwner() != null ? item.getOwner().getId() : null;
+            this.name = normalize(item.getName());
+            this.description = normalize(item.getDescription());
+        }
+
+        private int score(String query) {
+            return score(name, query, NAME_WORD_SCORE, NAME_SUBSTRING_SCORE) +
+                    score(description, query, DESCRIPTION_WORD_SCORE, DESCRIPTION_SUBSTRING_SCORE);
+        }
+
+        private static int score(String text, String query, int wordScore, int substringScore) {
+            int score = 0;
+            for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + 1)) {
+                score += substringScore;
+            }
+            if (score > 0) {
+                for (String token : TOKEN_SEPARATOR.split(text)) {
+                    if (token.equals(query)) {
+                        score += wordScore;
+                    }
+                }
+            }
+            return score;
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(name, grams);
+            addGrams(description, grams);
+            return grams;
+        }
+
+        private Set<String> nameTokens() {
+            Set<String> tokens = new HashSet<>();
+            for (String token : TOKEN_SEPARATOR.split(name)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                    tokens.add(transliterate(token));
+                }
+            }
+            return tokens;
+        }
+
+        private static void addGrams(String text, Set<String> grams) {
+            for (int i = 0; i < text.length(); i++) {
+                for (int n = 1; n <= GRAM_SIZE && i + n <= text.length(); n++) {
+                    grams.add(text.substring(i, i + n));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemBatchRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.validator.ItemValidator;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk item creation. Rows are imported in chunks, each chunk in its own transaction with one
+ * request lookup and one batched insert; invalid rows are reported and skipped, not fatal.
+ * Column limits are checked up front; if the batch still violates a constraint, the chunk is
+ * inserted row by row so only the offending rows fail.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemImportService {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_NAME_LENGTH = 40;
+    static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final ItemBatchRepository batchRepository;
+    private final UserJpaRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public List<ItemImportResult> importItems(Long userId, List<ItemDto> items) {
+        User owner = findOwner(userId);
+        List<ItemImportResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            results.addAll(importChunk(owner, items.subList(from, Math.min(from + CHUNK_SIZE, items.size())), from));
+        }
+        return results;
+    }
+
+    /**
+     * Imports newline-delimited JSON, one item per line, holding at most one chunk of rows in memory.
+     */
+    public List<ItemImportResult> importItems(Long userId, BufferedReader reader) throws IOException {
+        User owner = findOwner(userId);
+        List<ItemImportResult> results = new ArrayList<>();
+        List<ItemDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(line));
+            if (chunk.size() == CHUNK_SIZE) {
+                results.addAll(importChunk(owner, chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(owner, chunk, results.size()));
+        }
+        return results;
+    }
+
+    private User findOwner(Long userId) {
+        return userRepository.findById(userId).orElseThrow(() ->
+                new ObjectNotFoundException("Owner not found."));
+    }
+
+    private ItemDto parse(String line) {
+        try {
+            return objectMapper.readValue(line, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private List<ItemImportResult> importChunk(User owner, List<ItemDto> rows, int firstRow) {
+        Set<Long> requestIds = rows.stream()
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<ItemImportResult> results = new ArrayList<>(rows.size());
+        List<Item> created = new ArrayList<>();
+        List<ItemImportResult> createdResults = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of() : itemRequestRepository
+                        .findAllById(requestIds)
+                        .stream()
+                        .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+                for (int i = 0; i < rows.size(); i++) {
+                    ItemDto row = rows.get(i);
+                    ItemImportResult result = ItemImportResult.builder()
+                            .row(firstRow + i)
+                            .build();
+                    results.add(result);
+                    if (row == null) {
+                        result.setError("Malformed item row.");
+                    } else if (ItemValidator.itemCheck(row)) {
+                        result.setError("Invalid item body.");
+                    } else if (row.getName().length() > MAX_NAME_LENGTH) {
+                        result.setError("Item name is longer than " + MAX_NAME_LENGTH + " characters.");
+                    } else if (row.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+                        result.setError("Item description is longer than " + MAX_DESCRIPTION_LENGTH + " characters.");
+                    } else if (row.getRequestId() != null && !requests.containsKey(row.getRequestId())) {
+                        result.setError("Request not found.");
+                    } else {
+                        Item item = ItemMapper.toItem(row);
+                        item.setId(null);
+                        item.setOwner(owner);
+                        item.setRequest(row.getRequestId() != null ? requests.get(row.getRequestId()) : null);
+                        created.add(item);
+                        createdResults.add(result);
+                    }
+                }
+                batchRepository.insertAll(created);
+            });
+        } catch (DataIntegrityViolationException e) {
+            insertRowByRow(created, createdResults);
+        }
+        for (int i = 0; i < created.size(); i++) {
+            createdResults.get(i).setId(created.get(i).getId());
+        }
+        created.forEach(searchIndex::put);
+        return results;
+    }
+
+    /**
+     * Re-inserts the rows of a rolled back chunk one per transaction, reporting and dropping the rows that fail.
+     */
+    private void insertRowByRow(List<Item> created, List<ItemImportResult> createdResults) {
+        Iterator<Item> items = created.iterator();
+        Iterator<ItemImportResult> results = createdResults.iterator();
+        while (items.hasNext()) {
+            Item item = items.next();
+            ItemImportResult result = results.next();
+            try {
+                transactionTemplate.executeWithoutResult(status -> batchRepository.insertAll(List.of(item)));
+            } catch (DataIntegrityViolationException e) {
+                result.setError("Item violates a database constraint.");
+                items.remove();
+                results.remove();
+            }
+        }
+    }
+}
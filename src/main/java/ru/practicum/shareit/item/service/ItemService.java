@@ -1,13 +1,16 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
-    List<ItemInfoDto> getItems(Long userId);
+    CursorPage<ItemInfoDto> getItems(Long userId, String cursor, Integer size);
 
     ItemInfoDto getItem(Long itemId, Long userId);
 
@@ -17,7 +20,12 @@ public interface ItemService {
 
     void deleteItem(Long itemId);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, Integer from, Integer size, Boolean fuzzy,
+                              LocalDateTime start, LocalDateTime end);
+
+    List<String> suggestItemNames(String prefix, Integer size);
+
+    ItemCalendarDto getCalendar(Long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.TimeRange;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.InvalidEntityException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.cache.ItemBookings;
+import ru.practicum.shareit.item.cache.ItemDetails;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -17,51 +28,80 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.validator.ItemValidator;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.retry.OptimisticRetry;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.repository.UserJpaRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final Period DEFAULT_CALENDAR_PERIOD = Period.ofMonths(1);
+
     private final ItemJpaRepository repository;
     private final UserJpaRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemDetailsCache itemCache;
+    private final OptimisticRetry retry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        searchIndex.rebuild(repository.findAllByAvailableTrue());
+    }
 
     @Override
-    public List<ItemInfoDto> getItems(Long userId) {
-        return repository.findAllByOwnerId(userId)
+    public CursorPage<ItemInfoDto> getItems(Long userId, String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        long afterId = cursor == null ? 0 : PageCursor.decodeId(cursor);
+        List<ItemInfoDto> items = repository
+                .findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, afterId, PageRequest.of(0, pageSize + 1))
                 .stream()
                 .map(ItemMapper::toItemInfo)
-                .peek(this::setBookingToItem)
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = PageCursor.encodeId(items.get(pageSize - 1).getId());
+        }
+        setBookingsToItems(items);
+        return new CursorPage<>(items, nextCursor);
     }
 
     @Override
     public ItemInfoDto getItem(Long itemId, Long userId) {
-        Item item = repository.findById(itemId)
-                .orElseThrow(() -> new ObjectNotFoundException("Item not found."));
-        ItemInfoDto itemInfoDto = ItemMapper.toItemInfo(item);
-        if (item.getOwner().getId().equals(userId)) {
-            setBookingToItem(itemInfoDto);
+        ItemDetails details = itemCache.getDetails(itemId, this::loadItemDetails);
+        ItemInfoDto itemInfoDto = details.getItem().toBuilder().build();
+        if (details.getOwnerId().equals(userId)) {
+            ItemBookings bookings = itemCache.getBookings(itemId, this::loadItemBookings);
+            itemInfoDto.setLastBooking(bookings.getLastBooking());
+            itemInfoDto.setNextBooking(bookings.getNextBooking());
         }
-        List<CommentDto> comments = commentRepository.findByItem_Id(itemId)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
-        itemInfoDto.setComments(comments.isEmpty() ? Collections.emptyList() : comments);
-
         return itemInfoDto;
     }
 
@@ -74,19 +114,23 @@ public class ItemServiceImpl implements ItemService {
         Item newItem = ItemMapper.toItem(item);
         newItem.setOwner(userRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException("Owner not found.")));
-        if (item.getRequestId() == null) {
-            return ItemMapper.toDto(repository.save(newItem));
+        if (item.getRequestId() != null) {
+            ItemRequest itemRequest = itemRequestRepository.findById(item.getRequestId())
+                    .orElseThrow(() ->
+                            new ObjectNotFoundException("Request not found."));
+            newItem.setRequest(itemRequest);
         }
-        ItemRequest itemRequest = itemRequestRepository.findById(item.getRequestId())
-                .orElseThrow(() ->
-                        new ObjectNotFoundException("Request not found."));
-        newItem.setRequest(itemRequest);
-        return ItemMapper.toDto(repository.save(newItem));
+        Item savedItem = repository.save(newItem);
+        AfterCommit.run(() -> searchIndex.put(savedItem));
+        return ItemMapper.toDto(savedItem);
     }
 
-    @Transactional
     @Override
     public ItemDto updateItem(Long userId, Long itemId, ItemDto item) {
+        return retry.execute(() -> patchItem(userId, itemId, item));
+    }
+
+    private ItemDto patchItem(Long userId, Long itemId, ItemDto item) {
         Item updatedItem = repository.findById(itemId)
                 .orElseThrow(() ->
                         new ObjectNotFoundException("Item not found."));
@@ -94,7 +138,11 @@ public class ItemServiceImpl implements ItemService {
             throw new ObjectNotFoundException("Item not belongs to this user.");
         }
         Item savedItem = itemUpdate(updatedItem, item);
-        repository.save(savedItem);
+        repository.saveAndFlush(savedItem);
+        AfterCommit.run(() -> {
+            searchIndex.put(savedItem);
+            itemCache.invalidate(itemId);
+        });
         return ItemMapper.toDto(savedItem);
     }
 
@@ -105,19 +153,72 @@ public class ItemServiceImpl implements ItemService {
             throw new ObjectNotFoundException("Item not found.");
         }
         repository.deleteById(itemId);
+        AfterCommit.run(() -> {
+            searchIndex.remove(itemId);
+            bookingIntervalIndex.removeItem(itemId);
+            itemCache.invalidate(itemId);
+        });
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, Integer from, Integer size, Boolean fuzzy,
+                                     LocalDateTime start, LocalDateTime end) {
+        if (from < 0 || size != null && size < 0) {
+            throw new InvalidEntityException("Arguments can't be negative.");
+        }
+        int limit = size != null ? size : Integer.MAX_VALUE;
+        if ((start == null) != (end == null) || (start != null && !start.isBefore(end))) {
+            throw new InvalidEntityException("Invalid availability period.");
+        }
         if (text.isEmpty()) {
             return Collections.emptyList();
+        } else if (start == null) {
+            return searchIndex.search(text, from, limit, Boolean.TRUE.equals(fuzzy));
         } else {
-            return repository.search(text).stream()
-                    .map(ItemMapper::toDto)
-                    .collect(Collectors.toList());
+            return searchIndex.search(text, from, limit, Boolean.TRUE.equals(fuzzy),
+                    itemId -> bookingIntervalIndex.isFree(itemId, start, end));
         }
     }
 
+    @Override
+    public List<String> suggestItemNames(String prefix, Integer size) {
+        if (size < 0) {
+            throw new InvalidEntityException("Arguments can't be negative.");
+        }
+        return searchIndex.suggest(prefix, Math.min(size, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Free and busy ranges of an item from the merged occupancy kept by the interval index, without
+     * touching the booking table. The window starts no earlier than now; past bookings are not indexed.
+     */
+    @Override
+    public ItemCalendarDto getCalendar(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(DEFAULT_CALENDAR_PERIOD) : to;
+        if (!start.isBefore(end)) {
+            throw new InvalidEntityException("Invalid availability period.");
+        }
+        if (!repository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Item not found.");
+        }
+
+        List<ItemCalendarDto.Range> ranges = new ArrayList<>();
+        LocalDateTime cursor = start;
+        for (TimeRange busy : bookingIntervalIndex.busyRanges(itemId, start, end)) {
+            if (cursor.isBefore(busy.getStart())) {
+                ranges.add(new ItemCalendarDto.Range(cursor, busy.getStart(), true));
+            }
+            ranges.add(new ItemCalendarDto.Range(busy.getStart(), busy.getEnd(), false));
+            cursor = busy.getEnd();
+        }
+        if (cursor.isBefore(end)) {
+            ranges.add(new ItemCalendarDto.Range(cursor, end, true));
+        }
+        return new ItemCalendarDto(itemId, start, end, ranges);
+    }
+
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
         validateComment(userId, itemId, commentDto);
         Comment comment = CommentMapper.toComment(commentDto);
@@ -126,24 +227,63 @@ public class ItemServiceImpl implements ItemService {
         comment.setUser(userRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException("User not found.")));
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        CommentDto savedComment = CommentMapper.toCommentDto(commentRepository.save(comment));
+        AfterCommit.run(() -> itemCache.invalidateDetails(itemId));
+        return savedComment;
+    }
+
+    private ItemDetails loadItemDetails(Long itemId) {
+        Item item = repository.findById(itemId)
+                .orElseThrow(() -> new ObjectNotFoundException("Item not found."));
+        ItemInfoDto itemInfoDto = ItemMapper.toItemInfo(item);
+        List<CommentDto> comments = commentRepository.findByItem_Id(itemId)
+                .stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+        itemInfoDto.setComments(comments.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(comments));
+        return new ItemDetails(itemInfoDto, item.getOwner().getId());
     }
 
-    private void setBookingToItem(ItemInfoDto item) {
-        List<Booking> bookingList = bookingRepository.findAllByItemIdOrderByStartAsc(item.getId());
-        if (!bookingList.isEmpty()) {
-            Booking lastBooking = bookingList.stream()
-                    .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED) &&
-                            booking.getStart().isBefore(LocalDateTime.now()))
-                    .reduce((booking, booking2) -> booking2)
-                    .orElse(null);
+    private ItemBookings loadItemBookings(Long itemId) {
+        ItemInfoDto itemInfoDto = ItemInfoDto.builder().id(itemId).build();
+        setBookingsToItems(List.of(itemInfoDto));
+        BookingItemDto nextBooking = itemInfoDto.getNextBooking();
+        return new ItemBookings(itemInfoDto.getLastBooking(), nextBooking,
+                nextBooking != null ? nextBooking.getStart() : null);
+    }
+
+    private void setBookingsToItems(List<ItemInfoDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Set<Long> itemIds = items.stream()
+                .map(ItemInfoDto::getId)
+                .collect(Collectors.toSet());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = bookingRepository
+                .findLastBookings(itemIds, now, BookingStatus.REJECTED)
+                .stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        BinaryOperator.maxBy(Comparator.comparing(Booking::getId))));
+        Set<Long> withoutLastBooking = itemIds.stream()
+                .filter(itemId -> !lastBookings.containsKey(itemId))
+                .collect(Collectors.toSet());
+        if (!withoutLastBooking.isEmpty()) {
+            archivedBookingRepository.findLastBookings(withoutLastBooking, BookingStatus.REJECTED)
+                    .forEach(booking -> lastBookings.merge(booking.getItem().getId(), BookingMapper.toBooking(booking),
+                            BinaryOperator.maxBy(Comparator.comparing(Booking::getId))));
+        }
+        Map<Long, Booking> nextBookings = bookingRepository
+                .findNextBookings(itemIds, now, BookingStatus.REJECTED)
+                .stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        BinaryOperator.minBy(Comparator.comparing(Booking::getId))));
+        for (ItemInfoDto item : items) {
+            Booking lastBooking = lastBookings.get(item.getId());
             if (lastBooking != null) {
                 item.setLastBooking(BookingMapper.toBookingItem(lastBooking));
             }
-            Booking nextBooking = bookingList.stream()
-                    .filter(booking -> !booking.getStatus().equals(BookingStatus.REJECTED) &&
-                            booking.getStart().isAfter(LocalDateTime.now()))
-                    .findFirst().orElse(null);
+            Booking nextBooking = nextBookings.get(item.getId());
             if (nextBooking != null) {
                 item.setNextBooking(BookingMapper.toBookingItem(nextBooking));
             }
@@ -185,10 +325,11 @@ public class ItemServiceImpl implements ItemService {
 
     private Boolean isAlreadyBooked(Long userId, Long itemId) {
         List<Booking> bookingList = bookingRepository.findByBooker_IdAndItem_IdOrderByStartAsc(userId, itemId);
-        if (bookingList.isEmpty()) {
+        boolean archived = archivedBookingRepository.existsByBooker_IdAndItem_Id(userId, itemId);
+        if (bookingList.isEmpty() && !archived) {
             throw new InvalidEntityException("User is not booked item");
         }
-        return bookingList.stream()
+        return archived || bookingList.stream()
                 .anyMatch(booking ->
                         booking.getEnd().isBefore(LocalDateTime.now()));
     }
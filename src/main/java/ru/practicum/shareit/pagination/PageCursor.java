@@ -0,0 +1,50 @@
+package ru.practicum.shareit.pagination;
+
+import ru.practicum.shareit.exception.InvalidEntityException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor tokens: the position of the last returned row, URL-safe base64 encoded so clients
+ * pass it back unchanged instead of building it themselves.
+ */
+public final class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private PageCursor() {
+    }
+
+    public static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEntityException("Invalid cursor.");
+        }
+    }
+
+    public static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new InvalidEntityException("Invalid cursor.");
+        }
+    }
+
+    public static int pageSize(Integer size) {
+        if (size <= 0) {
+            throw new InvalidEntityException("Page size must be positive.");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
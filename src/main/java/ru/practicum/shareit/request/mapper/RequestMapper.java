@@ -13,7 +13,7 @@ public class RequestMapper {
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
                 .created(itemRequest.getCreated())
-                .requestor(itemRequest.getRequestor().getId())
+                .requestor(itemRequest.getRequestorId())
                 .build();
     }
 
@@ -33,6 +33,7 @@ public class RequestMapper {
                 .description(itemRequestDto.getDescription())
                 .created(itemRequestDto.getCreated())
                 .requestor(user)
+                .requestorId(user.getId())
                 .build();
     }
 }
\ No newline at end of file
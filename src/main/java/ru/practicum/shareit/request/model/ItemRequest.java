@@ -27,6 +27,12 @@ public class ItemRequest {
     @JoinColumn(name = "requestor_id")
     private User requestor;
 
+    /**
+     * Read-only view of the requestor_id column, so listings don't need the lazy requestor.
+     */
+    @Column(name = "requestor_id", insertable = false, updatable = false)
+    private Long requestorId;
+
     @Column
     private LocalDateTime created;
 }
\ No newline at end of file
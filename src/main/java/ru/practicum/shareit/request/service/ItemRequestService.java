@@ -16,7 +16,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserJpaRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,10 +34,7 @@ public class ItemRequestService {
     public List<ItemRequestDto> getRequests(Long userId) {
         userJpaRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException(USER_NOT_FOUND));
-        return itemRequestRepository.findAllByRequestorId(userId)
-                .stream()
-                .map(this::toItemRequestDto)
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findAllByRequestorId(userId));
     }
 
     public ItemRequestDto addRequest(Long userId, ItemRequestDto itemRequestDto) {
@@ -44,14 +43,15 @@ public class ItemRequestService {
         User user = userJpaRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException(USER_NOT_FOUND));
         ItemRequest itemRequest = RequestMapper.toItemRequest(itemRequestDto, user);
-        return this.toItemRequestDto(itemRequestRepository.save(itemRequest));
+        return toItemRequestDto(itemRequestRepository.save(itemRequest), Collections.emptyList());
     }
 
     public ItemRequestDto getRequestById(Long userId, Long requestId) {
         userJpaRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException(USER_NOT_FOUND));
-        return this.toItemRequestDto(itemRequestRepository.findById(requestId).orElseThrow(() ->
-                new ObjectNotFoundException("Request not found.")));
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new ObjectNotFoundException("Request not found."));
+        return toItemRequestDtos(List.of(itemRequest)).get(0);
     }
 
     public List<ItemRequestDto> getAllRequest(Long userId, Integer from, Integer size) {
@@ -61,26 +61,36 @@ public class ItemRequestService {
         userJpaRepository.findById(userId).orElseThrow(() ->
                 new ObjectNotFoundException(USER_NOT_FOUND));
 
-        return itemRequestRepository
-                .findAllByRequestorIdIsNot(userId, PageRequest.of((from / size), size, Sort.by("created").descending()))
+        return toItemRequestDtos(itemRequestRepository
+                .findAllByRequestorIdIsNot(userId, PageRequest.of((from / size), size, Sort.by("created").descending())));
+    }
+
+    /**
+     * Loads the answering items of all requests with one IN query and groups them in memory.
+     */
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequest_IdIn(itemRequests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList()))
                 .stream()
-                .map(this::toItemRequestDto)
+                .map(RequestMapper::toRequestItemDto)
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        return itemRequests.stream()
+                .map(itemRequest -> toItemRequestDto(itemRequest,
+                        items.getOrDefault(itemRequest.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
-    private ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+    private ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> items) {
         return ItemRequestDto.builder()
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
                 .created(itemRequest.getCreated())
-                .requestor(itemRequest.getRequestor().getId())
-                .items(putItemDtoToRequest(itemRequest))
+                .requestor(itemRequest.getRequestorId())
+                .items(items)
                 .build();
     }
-
-    private List<ItemDto> putItemDtoToRequest(ItemRequest itemRequest) {
-        return itemRepository.findAllByRequest_Id(itemRequest.getId()).stream()
-                .map(RequestMapper::toRequestItemDto)
-                .collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.retry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and, when a version check fails, re-runs it from a fresh read.
+ * Attempts are bounded and spaced by exponential backoff with full jitter, so competing writers spread out instead
+ * of colliding again. Inside an outer transaction the action runs once: its snapshot can't be refreshed there.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           @Value("${shareit.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${shareit.retry.backoff:PT0.01S}") Duration backoff,
+                           @Value("${shareit.retry.max-backoff:PT0.2S}") Duration maxBackoff) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoffNanos = backoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException("Entity was modified concurrently, try again.");
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, backoffNanos << Math.min(attempt - 1, 30));
+        long delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        try {
+            Thread.sleep(delay / 1_000_000, (int) (delay % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Entity was modified concurrently, try again.");
+        }
+    }
+}
@@ -2,8 +2,13 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.exception.EntityAlreadyExist;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,6 +23,10 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserJpaRepository repository;
+    private final ItemJpaRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemDetailsCache itemCache;
 
     @Override
     public List<UserDto> getUsers() {
@@ -51,7 +60,12 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(Long userId, UserDto user) {
         User updateUser = repository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("User not found."));
-        return UserMapper.toUserDto(repository.save(userPatchNameAndEmail(updateUser, user)));
+        boolean nameChanged = user.getName() != null && !user.getName().equals(updateUser.getName());
+        UserDto updatedUser = UserMapper.toUserDto(repository.save(userPatchNameAndEmail(updateUser, user)));
+        if (nameChanged) {
+            AfterCommit.run(itemCache::invalidateAll);
+        }
+        return updatedUser;
     }
 
     @Transactional
@@ -60,7 +74,14 @@ public class UserServiceImpl implements UserService {
         if (!repository.existsById(userId)) {
             throw new ObjectNotFoundException("User not found.");
         }
+        List<Long> ownedItemIds = itemRepository.findIdsByOwnerId(userId);
         repository.deleteById(userId);
+        AfterCommit.run(() -> {
+            itemSearchIndex.removeByOwner(userId);
+            ownedItemIds.forEach(bookingIntervalIndex::removeItem);
+            bookingIntervalIndex.removeBooker(userId);
+            itemCache.invalidateAll();
+        });
     }
 
     private User userPatchNameAndEmail(User updatedUser, UserDto user) {
@@ -2,6 +2,8 @@ DROP TABLE IF EXISTS users CASCADE;
 DROP TABLE IF EXISTS request CASCADE;
 DROP TABLE IF EXISTS item CASCADE;
 DROP TABLE IF EXISTS booking CASCADE;
+DROP TABLE IF EXISTS booking_archive CASCADE;
+DROP TABLE IF EXISTS idempotency_key CASCADE;
 
 CREATE TABLE IF NOT EXISTS users
 (
@@ -25,7 +27,8 @@ CREATE TABLE IF NOT EXISTS item
     description VARCHAR(255),
     available BOOLEAN,
     owner_id INT REFERENCES users (id) ON DELETE CASCADE,
-    request_id INT REFERENCES request (id) ON DELETE CASCADE
+    request_id INT REFERENCES request (id) ON DELETE CASCADE,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS booking
@@ -35,9 +38,25 @@ CREATE TABLE IF NOT EXISTS booking
     end_date TIMESTAMP WITHOUT TIME ZONE,
     status VARCHAR(30),
     item_id INT REFERENCES item (id) ON DELETE CASCADE,
+    booker_id INT REFERENCES users (id) ON DELETE CASCADE,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS booking_end_date_idx ON booking (end_date);
+
+CREATE TABLE IF NOT EXISTS booking_archive
+(
+    id INT PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date TIMESTAMP WITHOUT TIME ZONE,
+    status VARCHAR(30),
+    item_id INT REFERENCES item (id) ON DELETE CASCADE,
     booker_id INT REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS booking_archive_booker_idx ON booking_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS booking_archive_item_idx ON booking_archive (item_id, start_date);
+
 CREATE TABLE IF NOT EXISTS comment
 (
     id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -46,3 +65,16 @@ CREATE TABLE IF NOT EXISTS comment
     item_id INT REFERENCES item (id) ON DELETE CASCADE,
     user_id INT REFERENCES users (id) ON DELETE CASCADE
 );
+
+CREATE TABLE IF NOT EXISTS idempotency_key
+(
+    scope VARCHAR(30) NOT NULL,
+    user_id INT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(32) NOT NULL,
+    response TEXT,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_key_created_idx ON idempotency_key (created_at);
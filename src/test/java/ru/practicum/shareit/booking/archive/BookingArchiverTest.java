@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingArchiveBatchRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "shareit.booking.archive.after=P30D")
+@Import({BookingArchiver.class, BookingArchiveBatchRepository.class})
+class BookingArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingArchiver archiver;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("itemDescription")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void movesBookingsEndedBeforeTheHorizonInChunks() {
+        int finished = BookingArchiver.CHUNK_SIZE + 5;
+        IntStream.range(0, finished).forEach(i -> persist(-100 - i, -60, BookingStatus.APPROVED));
+        Booking recent = persist(-20, -10, BookingStatus.APPROVED);
+        Booking upcoming = persist(1, 2, BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(finished, archiver.archiveFinishedBookings());
+        entityManager.clear();
+
+        assertEquals(List.of(recent.getId(), upcoming.getId()), bookingRepository.findAll().stream()
+                .map(Booking::getId)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(finished, archivedBookingRepository.count());
+        assertTrue(archivedBookingRepository.existsByBooker_IdAndItem_Id(booker.getId(), item.getId()));
+        assertEquals(0, archiver.archiveFinishedBookings());
+    }
+
+    @Test
+    void archivedBookingsStayListedAndCounted() {
+        Booking old = persist(-100, -90, BookingStatus.APPROVED);
+        Booking recent = persist(-20, -10, BookingStatus.REJECTED);
+        entityManager.flush();
+        archiver.archiveFinishedBookings();
+        entityManager.clear();
+
+        List<BookingInfoDto> archived = bookingRepository.findArchivedBookings(BookingRole.BOOKER, booker.getId(),
+                BookingState.PAST, NOW, null, 0, 10);
+        assertEquals(List.of(old.getId()), archived.stream()
+                .map(BookingInfoDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals("item", archived.get(0).getItem().getName());
+        assertEquals(Map.of(BookingStatus.APPROVED, 1L, BookingStatus.REJECTED, 1L),
+                bookingRepository.countByStatus(BookingRole.BOOKER, booker.getId()));
+        assertEquals(List.of(old.getId()), archivedBookingRepository
+                .findLastBookings(List.of(item.getId()), BookingStatus.REJECTED).stream()
+                .map(booking -> booking.getId())
+                .collect(Collectors.toList()));
+        assertEquals(recent.getId(), bookingRepository.findAll().get(0).getId());
+    }
+
+    private Booking persist(int startDays, int endDays, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(NOW.plusDays(startDays))
+                .end(NOW.plusDays(endDays))
+                .status(status)
+                .build());
+    }
+}
@@ -9,9 +9,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.counter.BookingCountService;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingStreamService;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.user.dto.UserInfoDto;
@@ -34,6 +37,10 @@ class BookingControllerTest {
     private ObjectMapper mapper;
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private BookingStreamService bookingStreamService;
+    @MockBean
+    private BookingCountService bookingCountService;
     @Autowired
     private MockMvc mockMvc;
     private BookingInfoDto bookingInfoDto;
@@ -108,8 +115,8 @@ class BookingControllerTest {
 
     @Test
     void getBookingIsOkTest() throws Exception {
-        when(bookingService.getBooking(any(), any(), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingInfoDto));
+        when(bookingService.getBooking(any(), any(), anyInt(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(List.of(bookingInfoDto), null));
 
         mockMvc.perform(get("/bookings" + "?state=ALL")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -129,8 +136,8 @@ class BookingControllerTest {
 
     @Test
     void getOwnerBookingIsOkTest() throws Exception {
-        when(bookingService.getOwnerBooking(any(), any(), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingInfoDto));
+        when(bookingService.getOwnerBooking(any(), any(), anyInt(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(List.of(bookingInfoDto), null));
 
         mockMvc.perform(get("/bookings" + "/owner?state=ALL")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking.counter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.dto.UserInfoDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class BookingCountServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private UserJpaRepository userRepository;
+    private BookingCountService countService;
+
+    @BeforeEach
+    void setUp() {
+        countService = new BookingCountService(bookingRepository, userRepository, 100, Duration.ofMinutes(10));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(User.builder().id(1L).build()));
+        when(bookingRepository.countByStatus(any(), anyLong())).thenReturn(Map.of(BookingStatus.WAITING, 1L));
+        when(bookingRepository.findOpenSpans(any(), anyLong(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void loadsOnceAndAppliesBookingEvents() {
+        assertEquals(1L, countService.getCounts(BookingRole.OWNER, 1L).get(BookingState.WAITING));
+
+        BookingInfoDto booking = BookingInfoDto.builder()
+                .id(10L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .booker(UserInfoDto.builder().id(2L).build())
+                .status(BookingStatus.WAITING)
+                .build();
+        countService.onBookingChanged(new BookingChangedEvent(1L, booking, null));
+        Map<BookingState, Long> counts = countService.getCounts(BookingRole.OWNER, 1L);
+        assertEquals(2L, counts.get(BookingState.ALL));
+        assertEquals(2L, counts.get(BookingState.WAITING));
+        assertEquals(1L, counts.get(BookingState.FUTURE));
+
+        booking.setStatus(BookingStatus.APPROVED);
+        countService.onBookingChanged(new BookingChangedEvent(1L, booking, BookingStatus.WAITING));
+        assertEquals(1L, countService.getCounts(BookingRole.OWNER, 1L).get(BookingState.WAITING));
+
+        verify(bookingRepository, times(1)).countByStatus(BookingRole.OWNER, 1L);
+        verify(bookingRepository, times(0)).countByStatus(eq(BookingRole.BOOKER), anyLong());
+    }
+
+    @Test
+    void getCountsRequiresExistingUser() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(ObjectNotFoundException.class, () -> countService.getCounts(BookingRole.BOOKER, 1L));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.counter;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingSpan;
+import ru.practicum.shareit.enums.BookingState;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingCountersTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, Month.MAY, 10, 12, 0);
+
+    @Test
+    void loadsCountsAndAdvancesPeriodsOverTime() {
+        BookingCounters counters = new BookingCounters(
+                Map.of(BookingStatus.APPROVED, 3L, BookingStatus.WAITING, 1L, BookingStatus.REJECTED, 1L),
+                List.of(span(-1, 1), span(2, 3), span(4, 5)), NOW);
+
+        assertEquals(counts(5, 1, 2, 2, 1, 1), counters.snapshot(NOW));
+        assertEquals(counts(5, 1, 3, 1, 1, 1), counters.snapshot(NOW.plusDays(2).plusHours(12)));
+        assertEquals(counts(5, 0, 5, 0, 1, 1), counters.snapshot(NOW.plusDays(10)));
+    }
+
+    @Test
+    void exactBoundariesBelongToNoPeriod() {
+        BookingCounters counters = new BookingCounters(Map.of(BookingStatus.APPROVED, 1L), List.of(span(1, 2)), NOW);
+
+        assertEquals(0L, counters.snapshot(NOW.plusDays(1)).get(BookingState.CURRENT));
+        assertEquals(0L, counters.snapshot(NOW.plusDays(1)).get(BookingState.FUTURE));
+        assertEquals(1L, counters.snapshot(NOW.plusDays(1).plusNanos(1)).get(BookingState.CURRENT));
+        assertEquals(0L, counters.snapshot(NOW.plusDays(2)).get(BookingState.CURRENT));
+        assertEquals(1L, counters.snapshot(NOW.plusDays(2).plusNanos(1)).get(BookingState.PAST));
+    }
+
+    @Test
+    void appliesWritesIncrementally() {
+        BookingCounters counters = new BookingCounters(Map.of(), List.of(), NOW);
+
+        counters.add(BookingStatus.WAITING, NOW.plusDays(1), NOW.plusDays(2), NOW);
+        counters.add(BookingStatus.WAITING, NOW.minusDays(2), NOW.minusDays(1), NOW);
+        counters.changeStatus(BookingStatus.WAITING, BookingStatus.REJECTED);
+
+        assertEquals(counts(2, 0, 1, 1, 1, 1), counters.snapshot(NOW));
+    }
+
+    private static BookingSpan span(int startDays, int endDays) {
+        return new BookingSpan(NOW.plusDays(startDays), NOW.plusDays(endDays));
+    }
+
+    private static Map<BookingState, Long> counts(long all, long current, long past, long future, long waiting,
+                                                  long rejected) {
+        return Map.of(BookingState.ALL, all, BookingState.CURRENT, current, BookingState.PAST, past,
+                BookingState.FUTURE, future, BookingState.WAITING, waiting, BookingState.REJECTED, rejected);
+    }
+}
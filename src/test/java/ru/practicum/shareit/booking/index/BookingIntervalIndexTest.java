@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, Month.MAY, 1, 0, 0);
+
+    private BookingIntervalIndex index;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex();
+        item = Item.builder()
+                .id(1L)
+                .name("item")
+                .available(true)
+                .build();
+        booker = User.builder()
+                .id(2L)
+                .name("booker")
+                .build();
+        index.rebuild(List.of(
+                booking(1L, 1, 3, BookingStatus.APPROVED),
+                booking(2L, 2, 5, BookingStatus.WAITING),
+                booking(3L, 10, 12, BookingStatus.APPROVED)));
+    }
+
+    @Test
+    void isFreeChecksOverlapWithMergedRanges() {
+        assertTrue(index.isFree(item.getId(), day(0), day(1)));
+        assertFalse(index.isFree(item.getId(), day(0), day(2)));
+        assertFalse(index.isFree(item.getId(), day(4), day(6)));
+        assertTrue(index.isFree(item.getId(), day(5), day(10)));
+        assertFalse(index.isFree(item.getId(), day(6), day(11)));
+        assertFalse(index.isFree(item.getId(), day(0), day(20)));
+        assertTrue(index.isFree(item.getId(), day(12), day(20)));
+        assertTrue(index.isFree(99L, day(0), day(20)));
+    }
+
+    @Test
+    void isFreeOfApprovedIgnoresWaitingBookings() {
+        assertTrue(index.isFreeOfApproved(item.getId(), day(3), day(5)));
+        assertFalse(index.isFreeOfApproved(item.getId(), day(2), day(5)));
+
+        index.put(booking(2L, 2, 5, BookingStatus.APPROVED));
+        assertFalse(index.isFreeOfApproved(item.getId(), day(3), day(5)));
+    }
+
+    @Test
+    void rejectOverlappingWaitingKeepsApprovedAndOwnBooking() {
+        index.put(booking(4L, 3, 4, BookingStatus.WAITING));
+        index.put(booking(5L, 6, 7, BookingStatus.WAITING));
+
+        index.rejectOverlappingWaiting(item.getId(), 4L, day(3), day(4));
+        assertFalse(index.isFree(item.getId(), day(3), day(4)));
+        assertTrue(index.isFree(item.getId(), day(5), day(6)));
+        assertFalse(index.isFree(item.getId(), day(6), day(7)));
+        assertFalse(index.isFree(item.getId(), day(1), day(2)));
+    }
+
+    @Test
+    void busyRangesAreMergedAndClipped() {
+        List<TimeRange> ranges = index.busyRanges(item.getId(), day(2), day(11));
+
+        assertEquals(2, ranges.size());
+        assertEquals(day(2), ranges.get(0).getStart());
+        assertEquals(day(5), ranges.get(0).getEnd());
+        assertEquals(day(10), ranges.get(1).getStart());
+        assertEquals(day(11), ranges.get(1).getEnd());
+        assertTrue(index.busyRanges(item.getId(), day(5), day(10)).isEmpty());
+        assertTrue(index.busyRanges(99L, day(0), day(20)).isEmpty());
+    }
+
+    @Test
+    void putAndRemoveUpdateRanges() {
+        index.put(booking(2L, 2, 5, BookingStatus.REJECTED));
+        assertTrue(index.isFree(item.getId(), day(3), day(10)));
+
+        index.put(booking(4L, 6, 7, BookingStatus.WAITING));
+        assertFalse(index.isFree(item.getId(), day(3), day(10)));
+
+        index.removeBooker(booker.getId());
+        assertTrue(index.isFree(item.getId(), day(0), day(20)));
+
+        index.put(booking(5L, 6, 7, BookingStatus.APPROVED));
+        index.removeItem(item.getId());
+        assertTrue(index.isFree(item.getId(), day(0), day(20)));
+    }
+
+    @Test
+    void removingOneIntervalKeepsTheRestOfItsMergedRange() {
+        index.put(booking(4L, 4, 8, BookingStatus.WAITING));
+        index.put(booking(5L, 8, 10, BookingStatus.WAITING));
+        assertFalse(index.isFree(item.getId(), day(9), day(10)));
+
+        index.put(booking(2L, 2, 5, BookingStatus.REJECTED));
+        assertTrue(index.isFree(item.getId(), day(3), day(4)));
+        assertFalse(index.isFree(item.getId(), day(2), day(3)));
+        assertFalse(index.isFree(item.getId(), day(4), day(5)));
+
+        index.put(booking(4L, 6, 7, BookingStatus.WAITING));
+        List<TimeRange> ranges = index.busyRanges(item.getId(), day(0), day(20));
+        assertEquals(List.of(day(1), day(6), day(8)), ranges.stream().map(TimeRange::getStart)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(day(3), day(7), day(12)), ranges.stream().map(TimeRange::getEnd)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void pruneEndedDropsFinishedRangesOnly() {
+        index.put(booking(4L, 6, 11, BookingStatus.WAITING));
+
+        index.pruneEnded(item.getId(), day(6));
+        assertTrue(index.busyRanges(item.getId(), day(0), day(6)).isEmpty());
+        assertFalse(index.isFree(item.getId(), day(10), day(11)));
+
+        index.pruneEnded(item.getId(), day(12));
+        assertTrue(index.busyRanges(item.getId(), day(0), day(20)).isEmpty());
+
+        index.put(booking(5L, 13, 14, BookingStatus.APPROVED));
+        assertFalse(index.isFreeOfApproved(item.getId(), day(13), day(14)));
+    }
+
+    private Booking booking(Long id, int startDay, int endDay, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .start(day(startDay))
+                .end(day(endDay))
+                .status(status)
+                .build();
+    }
+
+    private LocalDateTime day(int day) {
+        return DAY.plusDays(day);
+    }
+}
@@ -0,0 +1,261 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs ticks against the database in real transactions, so the persisted status is what gets checked.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingLifecycleSchedulerTest {
+
+    private static final long START_MILLIS = System.currentTimeMillis() / 1000 * 1000 + 60_000;
+
+    @Autowired
+    private BookingRepository repository;
+    @Autowired
+    private ItemJpaRepository itemRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong clock = new AtomicLong(START_MILLIS);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final BookingIntervalIndex intervalIndex = new BookingIntervalIndex();
+    private BookingLifecycleScheduler scheduler;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new BookingLifecycleScheduler(repository, intervalIndex,
+                new ItemDetailsCache(100, Duration.ofMinutes(5)), publisher,
+                new TransactionTemplate(transactionManager), Duration.ofSeconds(1), clock::get);
+        User owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("drill")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void expiresWaitingBookingOnceItStarts() {
+        Booking waiting = save(10, 100, BookingStatus.WAITING);
+        scheduler.track(waiting);
+
+        clock.set(START_MILLIS + 9_000);
+        scheduler.tick();
+        assertEquals(BookingStatus.WAITING, reload(waiting).getStatus());
+
+        clock.set(START_MILLIS + 10_000);
+        scheduler.tick();
+
+        Booking expired = reload(waiting);
+        assertEquals(BookingStatus.EXPIRED, expired.getStatus());
+        assertEquals(waiting.getVersion() + 1, expired.getVersion());
+        assertTrue(intervalIndex.isFree(item.getId(), at(10), at(100)));
+        assertEquals(List.of(waiting.getId()), ids(publishedEvent().getExpired()));
+        assertEquals(BookingStatus.EXPIRED, publishedEvent().getExpired().get(0).getStatus());
+        assertEquals(0, scheduler.pendingTimers());
+    }
+
+    @Test
+    void bookingApprovedAfterTheSelectIsNotExpired() {
+        Booking approvedMeanwhile = save(10, 50, BookingStatus.WAITING);
+        Booking waiting = save(10, 100, BookingStatus.WAITING);
+        BookingRepository racing = mock(BookingRepository.class, AdditionalAnswers.delegatesTo(repository));
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            List<Booking> loaded = repository.findAllWithItemOwnerByIdIn(invocation.getArgument(0));
+            if (raced.compareAndSet(false, true)) {
+                approveInOtherTransaction(approvedMeanwhile.getId());
+            }
+            return loaded;
+        }).when(racing).findAllWithItemOwnerByIdIn(anyCollection());
+        scheduler = new BookingLifecycleScheduler(racing, intervalIndex,
+                new ItemDetailsCache(100, Duration.ofMinutes(5)), publisher,
+                new TransactionTemplate(transactionManager), Duration.ofSeconds(1), clock::get);
+        scheduler.track(approvedMeanwhile);
+        scheduler.track(waiting);
+
+        clock.set(START_MILLIS + 10_000);
+        scheduler.tick();
+
+        assertEquals(BookingStatus.APPROVED, reload(approvedMeanwhile).getStatus());
+        assertEquals(BookingStatus.EXPIRED, reload(waiting).getStatus());
+        assertEquals(List.of(waiting.getId()), ids(publishedEvent().getExpired()));
+        assertFalse(intervalIndex.isFree(item.getId(), at(10), at(50)));
+        assertTrue(intervalIndex.isFree(item.getId(), at(50), at(100)));
+    }
+
+    @Test
+    void publishesStartAndEndOfApprovedBookingsInOneBatch() {
+        Booking first = save(5, 20, BookingStatus.APPROVED);
+        Booking second = save(3, 5, BookingStatus.APPROVED);
+        scheduler.track(first);
+        scheduler.track(second);
+
+        clock.set(START_MILLIS + 6_000);
+        scheduler.tick();
+
+        BookingLifecycleEvent event = publishedEvent();
+        assertEquals(List.of(second.getId(), first.getId()), ids(event.getStarted()));
+        assertEquals(List.of(second.getId()), ids(event.getEnded()));
+        assertEquals(List.of(), event.getExpired());
+        assertEquals(BookingStatus.APPROVED, reload(first).getStatus());
+        assertEquals(1, scheduler.pendingTimers());
+    }
+
+    @Test
+    void skipsTimersOfBookingsThatChangedStatus() {
+        Booking booking = save(10, 100, BookingStatus.WAITING);
+        scheduler.track(booking);
+        booking.setStatus(BookingStatus.REJECTED);
+        repository.save(booking);
+
+        clock.set(START_MILLIS + 10_000);
+        scheduler.tick();
+
+        assertEquals(BookingStatus.REJECTED, reload(booking).getStatus());
+        verify(publisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void retriesTimersOfFailedTickOnLaterTick() {
+        Booking waiting = save(10, 100, BookingStatus.WAITING);
+        TransactionTemplate failingOnce = spy(new TransactionTemplate(transactionManager));
+        doThrow(new CannotCreateTransactionException("database unavailable"))
+                .doCallRealMethod()
+                .when(failingOnce).execute(any());
+        scheduler = new BookingLifecycleScheduler(repository, intervalIndex,
+                new ItemDetailsCache(100, Duration.ofMinutes(5)), publisher, failingOnce, Duration.ofSeconds(1),
+                clock::get);
+        scheduler.track(waiting);
+
+        clock.set(START_MILLIS + 10_000);
+        assertThrows(CannotCreateTransactionException.class, () -> scheduler.tick());
+        assertEquals(BookingStatus.WAITING, reload(waiting).getStatus());
+        assertEquals(1, scheduler.pendingTimers());
+
+        clock.set(START_MILLIS + 11_000);
+        scheduler.tick();
+
+        assertEquals(BookingStatus.EXPIRED, reload(waiting).getStatus());
+        assertEquals(List.of(waiting.getId()), ids(publishedEvent().getExpired()));
+        assertEquals(0, scheduler.pendingTimers());
+    }
+
+    @Test
+    void loadsPendingBookingsAndExpiresOverdueOnFirstTick() {
+        Booking overdue = save(-10, 100, BookingStatus.WAITING);
+
+        scheduler.loadPendingBookings();
+        scheduler.tick();
+
+        assertEquals(BookingStatus.EXPIRED, reload(overdue).getStatus());
+        assertEquals(List.of(overdue.getId()), ids(publishedEvent().getExpired()));
+    }
+
+    private BookingLifecycleEvent publishedEvent() {
+        ArgumentCaptor<BookingLifecycleEvent> captor = ArgumentCaptor.forClass(BookingLifecycleEvent.class);
+        verify(publisher).publishEvent(captor.capture());
+        return captor.getValue();
+    }
+
+    private Booking save(int startSeconds, int endSeconds, BookingStatus status) {
+        Booking booking = repository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(at(startSeconds))
+                .end(at(endSeconds))
+                .status(status)
+                .build());
+        intervalIndex.put(booking);
+        return booking;
+    }
+
+    private void approveInOtherTransaction(Long bookingId) {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE booking SET status = 'APPROVED', version = version + 1 WHERE id = ?", bookingId));
+    }
+
+    private Booking reload(Booking booking) {
+        return repository.findById(booking.getId()).orElseThrow();
+    }
+
+    private static List<Long> ids(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime at(int seconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(START_MILLIS + seconds * 1000L), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesTimersAtTheirDeadlineTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 3, 0);
+        assertTrue(wheel.schedule("near", 25));
+        assertTrue(wheel.schedule("far", 1000));
+        assertFalse(wheel.schedule("past", 0));
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(20, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("near"), fired);
+
+        wheel.advance(990, fired::add);
+        assertEquals(List.of("near"), fired);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(1000, fired::add);
+        assertEquals(List.of("near", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void neverFiresEarlyOrLateAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 8, 3, 0);
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            long deadline = random.nextInt(2000) + 1;
+            wheel.schedule(deadline, deadline);
+        }
+        int scheduled = wheel.size();
+        List<Long> fired = new ArrayList<>();
+
+        for (long now = 1; now <= 2000; now++) {
+            long tick = now;
+            wheel.advance(now, deadline -> {
+                assertEquals(tick, deadline);
+                fired.add(deadline);
+            });
+        }
+        assertEquals(scheduled, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
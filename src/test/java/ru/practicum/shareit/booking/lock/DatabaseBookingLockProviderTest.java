@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "shareit.booking.lock-mode=database")
+@Import(DatabaseBookingLockProvider.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseBookingLockProviderTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, Month.MAY, 1, 0, 0);
+
+    @Autowired
+    private DatabaseBookingLockProvider lockProvider;
+    @Autowired
+    private ItemJpaRepository itemRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private User owner;
+    private Item firstItem;
+    private Item secondItem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        firstItem = itemRepository.save(item("drill"));
+        secondItem = itemRepository.save(item("ladder"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sameItemLockWaitsForCommit() throws InterruptedException {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> inTransaction(() -> lockProvider.withItemLock(firstItem.getId(), () -> {
+            events.add("first");
+            locked.countDown();
+            sleep(300);
+            events.add("first done");
+            return null;
+        })));
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        inTransaction(() -> lockProvider.withItemLock(firstItem.getId(), () -> events.add("second")));
+        holder.join(5000);
+
+        assertEquals(List.of("first", "first done", "second"), events);
+    }
+
+    @Test
+    void otherItemsAreNotBlocked() throws InterruptedException {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> inTransaction(() -> lockProvider.withItemLock(firstItem.getId(), () -> {
+            locked.countDown();
+            await(release);
+            return events.add("first done");
+        })));
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        inTransaction(() -> lockProvider.withItemLock(secondItem.getId(), () -> events.add("other item")));
+        release.countDown();
+        holder.join(5000);
+
+        assertEquals(List.of("other item", "first done"), events);
+    }
+
+    @Test
+    void lockRequiresTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> lockProvider.withItemLock(firstItem.getId(), () -> true));
+    }
+
+    @Test
+    void overlapChecksQueryBookings() {
+        User booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(firstItem)
+                .booker(booker)
+                .start(DAY.plusDays(1))
+                .end(DAY.plusDays(3))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        assertFalse(lockProvider.isFree(firstItem.getId(), DAY.plusDays(2), DAY.plusDays(4)));
+        assertTrue(lockProvider.isFree(firstItem.getId(), DAY.plusDays(3), DAY.plusDays(4)));
+        assertTrue(lockProvider.isFree(secondItem.getId(), DAY.plusDays(2), DAY.plusDays(4)));
+        assertTrue(lockProvider.isFreeOfApproved(firstItem.getId(), DAY.plusDays(2), DAY.plusDays(4)));
+    }
+
+    private Item item(String name) {
+        return Item.builder()
+                .name(name)
+                .description(name)
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+    private void inTransaction(Runnable action) {
+        transactionTemplate.executeWithoutResult(status -> action.run());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
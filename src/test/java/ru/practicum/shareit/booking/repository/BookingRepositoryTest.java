@@ -1,174 +1,180 @@
 package ru.practicum.shareit.booking.repository;
 
-
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.junit.jupiter.MockitoSettings;
-import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserJpaRepository;
 
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.when;
-
-@DataJpaTest
-@MockitoSettings(strictness = Strictness.LENIENT)
-@ExtendWith(MockitoExtension.class)
-public class BookingRepositoryTest {
-    @InjectMocks
-    private BookingService bookingService;
-
-    @Mock
-    private BookingRepository bookingRepository;
 
-    @Mock
-    private UserJpaRepository userRepository;
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingRepositoryTest {
 
-    private Booking booking;
-    private User user;
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, Month.MAY, 10, 12, 0);
 
-    @BeforeEach
-    void setUp() {
+    @Autowired
+    private TestEntityManager entityManager;
 
-        user = User.builder()
-                .id(1L)
-                .name("user")
-                .email("user@user.com")
-                .build();
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking past;
+    private Booking current;
+    private Booking future;
+    private Booking waiting;
+    private Booking rejected;
 
-        Item item = Item.builder()
-                .id(1L)
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        item = entityManager.persist(Item.builder()
                 .name("item")
                 .description("itemDescription")
                 .available(true)
-                .owner(User.builder()
-                        .id(2L)
-                        .build())
-                .build();
-
-        booking = Booking.builder()
-                .id(1L)
-                .start(LocalDateTime.now().plusHours(1))
-                .end(LocalDateTime.now().plusDays(1))
-                .item(item)
-                .booker(user)
-                .status(BookingStatus.REJECTED)
-                .build();
+                .owner(owner)
+                .build());
+
+        past = entityManager.persist(booking(item, -5, -3, BookingStatus.APPROVED));
+        current = entityManager.persist(booking(item, -1, 1, BookingStatus.APPROVED));
+        future = entityManager.persist(booking(item, 3, 4, BookingStatus.APPROVED));
+        waiting = entityManager.persist(booking(item, 5, 6, BookingStatus.WAITING));
+        rejected = entityManager.persist(booking(item, 7, 8, BookingStatus.REJECTED));
+        entityManager.flush();
+        entityManager.clear();
     }
 
     @Test
-    void findAllByBookerIdOrderByStartDescTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "ALL", 0, 10), List.of(bookingInfoDto));
+    void findBookingsByState() {
+        assertEquals(ids(rejected, waiting, future, current, past), find(BookingRole.BOOKER, booker, BookingState.ALL));
+        assertEquals(ids(past), find(BookingRole.BOOKER, booker, BookingState.PAST));
+        assertEquals(ids(current), find(BookingRole.BOOKER, booker, BookingState.CURRENT));
+        assertEquals(ids(rejected, waiting, future), find(BookingRole.BOOKER, booker, BookingState.FUTURE));
+        assertEquals(ids(waiting), find(BookingRole.BOOKER, booker, BookingState.WAITING));
+        assertEquals(ids(rejected), find(BookingRole.BOOKER, booker, BookingState.REJECTED));
     }
 
     @Test
-    void findAllByBookerIdAndEndIsBeforeTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByBookerIdAndEndIsBefore(anyLong(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "PAST", 0, 10), List.of(bookingInfoDto));
+    void findBookingsByRole() {
+        assertEquals(ids(rejected, waiting, future, current, past), find(BookingRole.OWNER, owner, BookingState.ALL));
+        assertEquals(List.of(), find(BookingRole.OWNER, booker, BookingState.ALL));
+        assertEquals(List.of(), find(BookingRole.BOOKER, owner, BookingState.ALL));
     }
 
     @Test
-    void findAllByBookerIdAndStartIsAfterTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByBookerIdAndStartIsAfter(anyLong(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "FUTURE", 0, 10), List.of(bookingInfoDto));
+    void findBookingsResumesAfterCursor() {
+        List<BookingInfoDto> firstPage = bookingRepository.findBookings(BookingRole.OWNER, owner.getId(),
+                BookingState.ALL, NOW, null, 0, 2);
+        BookingInfoDto last = firstPage.get(1);
+        List<BookingInfoDto> secondPage = bookingRepository.findBookings(BookingRole.OWNER, owner.getId(),
+                BookingState.ALL, NOW, new BookingCursor(last.getStart(), last.getId()), 0, 2);
+
+        assertEquals(ids(rejected, waiting), idsOf(firstPage));
+        assertEquals(ids(future, current), idsOf(secondPage));
+        assertEquals(ids(past), idsOf(bookingRepository.findBookings(BookingRole.OWNER, owner.getId(),
+                BookingState.ALL, NOW, null, 4, 2)));
     }
 
     @Test
-    void findAllByBookerIdAndStartIsBeforeAndEndIsAfterTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(anyLong(), any(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "CURRENT", 0, 10), List.of(bookingInfoDto));
+    void findBookingsProjectsInOneStatement() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<BookingInfoDto> bookings = bookingRepository.findBookings(BookingRole.OWNER, owner.getId(),
+                BookingState.ALL, NOW, null, 0, 10);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        BookingInfoDto latest = bookings.get(0);
+        assertEquals(rejected.getStart(), latest.getStart());
+        assertEquals(BookingStatus.REJECTED, latest.getStatus());
+        assertEquals("item", latest.getItem().getName());
+        assertEquals(booker.getId(), latest.getBooker().getId());
+        assertEquals("booker", latest.getBooker().getName());
     }
 
     @Test
-    void findAllByBookerIdAndStatusTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(BookingStatus.class))).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "WAITING", 0, 10), List.of(bookingInfoDto));
-
-        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(BookingStatus.class))).thenReturn(List.of(booking));
-        assertEquals(bookingService.getBooking(user.getId(), "REJECTED", 0, 10), List.of(bookingInfoDto));
+    void rejectOverlappingWaitingRejectsOnlyOverlappingWaitingBookings() {
+        Booking adjacent = entityManager.persist(booking(item, 6, 7, BookingStatus.WAITING));
+        Booking approving = entityManager.persist(booking(item, 5, 6, BookingStatus.WAITING));
+        entityManager.flush();
+
+        int rejectedCount = bookingRepository.rejectOverlappingWaiting(item.getId(), approving.getId(),
+                approving.getStart(), approving.getEnd());
+        entityManager.clear();
+
+        assertEquals(1, rejectedCount);
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(adjacent.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(approving.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(future.getId()).orElseThrow().getStatus());
     }
 
     @Test
-    void findAllByItem_Owner_IdOrderByStartDescTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "ALL", 0, 10), List.of(bookingInfoDto));
+    void countByStatusAndFindOpenSpans() {
+        assertEquals(Map.of(BookingStatus.APPROVED, 3L, BookingStatus.WAITING, 1L, BookingStatus.REJECTED, 1L),
+                bookingRepository.countByStatus(BookingRole.OWNER, owner.getId()));
+        assertEquals(Map.of(), bookingRepository.countByStatus(BookingRole.OWNER, booker.getId()));
+
+        List<LocalDateTime> openStarts = bookingRepository.findOpenSpans(BookingRole.BOOKER, booker.getId(), NOW)
+                .stream()
+                .map(BookingSpan::getStart)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of(current.getStart(), future.getStart(), waiting.getStart(), rejected.getStart()),
+                openStarts);
     }
 
-    @Test
-    void findAllByItem_Owner_IdAndEndIsBeforeTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByItem_Owner_IdAndEndIsBefore(anyLong(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "PAST", 0, 10), List.of(bookingInfoDto));
+    private List<Long> find(BookingRole role, User user, BookingState state) {
+        return idsOf(bookingRepository.findBookings(role, user.getId(), state, NOW, null, 0, 10));
     }
 
-    @Test
-    void findAllByItem_Owner_IdAndStartIsAfterTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByItem_Owner_IdAndStartIsAfter(anyLong(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "FUTURE", 0, 10), List.of(bookingInfoDto));
-
-        when(bookingRepository.findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(anyLong(), any(), any(), any())).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "CURRENT", 0, 10), List.of(bookingInfoDto));
+    private Booking booking(Item item, int startDays, int endDays, BookingStatus status) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(NOW.plusDays(startDays))
+                .end(NOW.plusDays(endDays))
+                .status(status)
+                .build();
     }
 
-    @Test
-    void findAllByItem_Owner_IdAndStatusTest() {
-        BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
-
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-
-        when(bookingRepository.findAllByItem_Owner_IdAndStatus(anyLong(), any(BookingStatus.class))).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "WAITING", 0, 10), List.of(bookingInfoDto));
+    private static List<Long> ids(Booking... bookings) {
+        return List.of(bookings).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
 
-        when(bookingRepository.findAllByItem_Owner_IdAndStatus(anyLong(), any(BookingStatus.class))).thenReturn(List.of(booking));
-        assertEquals(bookingService.getOwnerBooking(user.getId(), "REJECTED", 0, 10), List.of(bookingInfoDto));
+    private static List<Long> idsOf(List<BookingInfoDto> bookings) {
+        return bookings.stream()
+                .map(BookingInfoDto::getId)
+                .collect(Collectors.toList());
     }
 }
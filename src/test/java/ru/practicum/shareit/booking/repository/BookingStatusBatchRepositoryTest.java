@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@Import(BookingStatusBatchRepository.class)
+class BookingStatusBatchRepositoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, Month.MAY, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingStatusBatchRepository statusBatchRepository;
+    @SpyBean
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private Booking first;
+    private Booking second;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("itemDescription")
+                .available(true)
+                .owner(owner)
+                .build());
+        first = entityManager.persist(booking(item, booker, 1));
+        second = entityManager.persist(booking(item, booker, 3));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void onlyRowsStillAsLoadedAreChanged() {
+        List<Booking> loaded = bookingRepository.findAllWithItemOwnerByIdIn(List.of(first.getId(), second.getId()));
+        bookingRepository.updateStatus(List.of(first.getId()), BookingStatus.WAITING, BookingStatus.EXPIRED);
+
+        Set<Long> updated = statusBatchRepository.updateStatuses(loaded,
+                Map.of(first.getId(), BookingStatus.APPROVED, second.getId(), BookingStatus.REJECTED));
+
+        assertEquals(Set.of(second.getId()), updated);
+        Booking expired = bookingRepository.findById(first.getId()).orElseThrow();
+        assertEquals(BookingStatus.EXPIRED, expired.getStatus());
+        Booking rejected = bookingRepository.findById(second.getId()).orElseThrow();
+        assertEquals(BookingStatus.REJECTED, rejected.getStatus());
+        assertEquals(second.getVersion() + 1, rejected.getVersion());
+    }
+
+    @Test
+    void rowsWithoutCountAreReadBack() {
+        List<Booking> loaded = bookingRepository.findAllWithItemOwnerByIdIn(List.of(first.getId(), second.getId()));
+        bookingRepository.updateStatus(List.of(first.getId()), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        doAnswer(invocation -> {
+            int[] counts = (int[]) invocation.callRealMethod();
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(SqlParameterSource[].class));
+
+        Set<Long> updated = statusBatchRepository.updateStatuses(loaded,
+                Map.of(first.getId(), BookingStatus.APPROVED, second.getId(), BookingStatus.REJECTED));
+
+        assertEquals(Set.of(second.getId()), updated);
+    }
+
+    private static Booking booking(Item item, User booker, int startDay) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(DAY.plusDays(startDay))
+                .end(DAY.plusDays(startDay + 1))
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
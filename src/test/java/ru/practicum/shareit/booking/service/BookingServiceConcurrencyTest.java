@@ -0,0 +1,280 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.lock.ItemLockStripes;
+import ru.practicum.shareit.booking.lock.LocalBookingLockProvider;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStatusBatchRepository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.retry.OptimisticRetry;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Races many threads through the real interval index and item locks; repositories are in-memory stubs.
+ */
+class BookingServiceConcurrencyTest {
+
+    private static final int THREADS = 200;
+    private static final int ITEMS = 50;
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final AtomicLong bookingIds = new AtomicLong();
+    private BookingService bookingService;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        UserJpaRepository userRepository = mock(UserJpaRepository.class);
+        ItemJpaRepository itemRepository = mock(ItemJpaRepository.class);
+        owner = User.builder().id(1L).name("owner").build();
+
+        when(bookingRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            if (booking.getId() == null) {
+                booking.setId(bookingIds.incrementAndGet());
+            }
+            bookings.put(booking.getId(), booking);
+            return booking;
+        });
+        when(bookingRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(bookings.get(invocation.<Long>getArgument(0))));
+        when(userRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(User.builder().id(invocation.getArgument(0)).name("user").build()));
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(Item.builder().id(invocation.getArgument(0)).name("item").available(true).owner(owner).build()));
+
+        bookingService = bookingService(bookingRepository, userRepository, itemRepository);
+    }
+
+    @Test
+    void concurrentBookingsOfOneItemNeverOverlap() throws InterruptedException {
+        run(THREADS, thread -> book(1L, 100L + thread, thread % 20, thread % 20 + 1 + thread % 3));
+
+        assertNoOverlaps(bookings.values());
+        assertFalse(bookings.isEmpty());
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsNeverOverlap() throws InterruptedException {
+        bookingService = bookingService(mockRepositoryWithWaitingBookings(), mockUsers(), mock(ItemJpaRepository.class));
+
+        run(THREADS, thread -> bookingService.updateBookingStatus(owner.getId(), (long) thread + 1, true));
+
+        List<Booking> approved = bookings.values().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.toList());
+        assertNoOverlaps(approved);
+        assertFalse(approved.isEmpty());
+    }
+
+    @Test
+    void bookingsOfUnrelatedItemsAllSucceed() throws InterruptedException {
+        Queue<BookingInfoDto> created = new ConcurrentLinkedQueue<>();
+        run(THREADS, thread -> created.add(book((long) thread % ITEMS + 1, 100L + thread, thread / ITEMS * 2,
+                thread / ITEMS * 2 + 1)));
+
+        assertEquals(THREADS, created.size());
+        assertNoOverlaps(bookings.values());
+    }
+
+    @Test
+    void multiItemLocksInAnyOrderDoNotDeadlock() throws InterruptedException {
+        ItemLockStripes locks = new ItemLockStripes(4);
+        AtomicLong completed = new AtomicLong();
+        run(THREADS, thread -> locks.withLocks(thread % 2 == 0 ? List.of(1L, 2L, 3L) : List.of(3L, 2L, 1L, 5L),
+                completed::incrementAndGet));
+
+        assertEquals(THREADS, completed.get());
+    }
+
+    @Test
+    void itemLockIsHeldUntilTheTransactionCompletes() throws Exception {
+        ItemLockStripes locks = new ItemLockStripes(64);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            locks.withLock(1L, () -> null);
+            held.countDown();
+            await(release);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        });
+        holder.start();
+        held.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Boolean> next = CompletableFuture.supplyAsync(() -> locks.withLock(1L, () -> true));
+        assertThrows(TimeoutException.class, () -> next.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(next.get(5, TimeUnit.SECONDS));
+        holder.join(5000);
+    }
+
+    @Test
+    void unrelatedItemsDoNotContend() throws InterruptedException {
+        ItemLockStripes locks = new ItemLockStripes(64);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> locks.withLock(1L, () -> {
+            held.countDown();
+            await(release);
+            return null;
+        }));
+        holder.start();
+        held.await(5, TimeUnit.SECONDS);
+
+        for (long itemId = 2; itemId <= 64; itemId++) {
+            assertTrue(locks.withLock(itemId, () -> true));
+        }
+        release.countDown();
+        holder.join(5000);
+    }
+
+    private static BookingService bookingService(BookingRepository bookingRepository, UserJpaRepository userRepository,
+                                                 ItemJpaRepository itemRepository) {
+        BookingIntervalIndex intervalIndex = new BookingIntervalIndex();
+        return new BookingService(bookingRepository, userRepository, itemRepository, intervalIndex,
+                new LocalBookingLockProvider(64, intervalIndex), new ItemDetailsCache(100, Duration.ofMinutes(5)),
+                mock(BookingLifecycleScheduler.class), mock(ApplicationEventPublisher.class),
+                mock(BookingArchiver.class), directRetry(),
+                mock(BookingStatusBatchRepository.class), mock(ArchivedBookingRepository.class));
+    }
+
+    private static OptimisticRetry directRetry() {
+        OptimisticRetry retry = mock(OptimisticRetry.class);
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        return retry;
+    }
+
+    private BookingInfoDto book(Long itemId, Long bookerId, int startDay, int endDay) {
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(itemId)
+                .bookerId(bookerId)
+                .start(BASE.plusDays(startDay))
+                .end(BASE.plusDays(endDay))
+                .build();
+        return bookingService.addBooking(bookerId, bookingDto);
+    }
+
+    private BookingRepository mockRepositoryWithWaitingBookings() {
+        Item item = Item.builder().id(1L).name("item").available(true).owner(owner).build();
+        for (long id = 1; id <= THREADS; id++) {
+            int startDay = (int) (id % 20);
+            bookings.put(id, Booking.builder()
+                    .id(id)
+                    .item(item)
+                    .booker(User.builder().id(100L + id).build())
+                    .start(BASE.plusDays(startDay))
+                    .end(BASE.plusDays(startDay + 1 + id % 3))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(bookings.get(invocation.<Long>getArgument(0))));
+        when(bookingRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return bookingRepository;
+    }
+
+    private UserJpaRepository mockUsers() {
+        UserJpaRepository userRepository = mock(UserJpaRepository.class);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        return userRepository;
+    }
+
+    private void run(int threads, ThreadTask task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            executor.execute(() -> {
+                await(start);
+                try {
+                    task.run(thread);
+                } catch (BookingConflictException ignored) {
+                    // losing the race is an expected outcome
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertTrue(failures.isEmpty(), () -> "unexpected failures: " + failures);
+    }
+
+    private static void assertNoOverlaps(Collection<Booking> bookings) {
+        Map<Long, List<Booking>> byItem = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (List<Booking> itemBookings : byItem.values()) {
+            List<Booking> sorted = new ArrayList<>(itemBookings);
+            sorted.sort((first, second) -> first.getStart().compareTo(second.getStart()));
+            for (int i = 1; i < sorted.size(); i++) {
+                assertFalse(sorted.get(i).getStart().isBefore(sorted.get(i - 1).getEnd()),
+                        "bookings " + sorted.get(i - 1).getId() + " and " + sorted.get(i).getId() + " overlap");
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
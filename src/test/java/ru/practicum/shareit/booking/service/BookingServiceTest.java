@@ -8,27 +8,63 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.lock.BookingLockProvider;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStatusBatchRepository;
+import ru.practicum.shareit.enums.BookingRole;
+import ru.practicum.shareit.enums.BookingState;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.InvalidEntityException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UnknownBookingState;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.retry.OptimisticRetry;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserJpaRepository;
 
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -43,6 +79,24 @@ class BookingServiceTest {
     private UserJpaRepository userRepository;
     @Mock
     private ItemJpaRepository itemRepository;
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+    @Mock
+    private ItemDetailsCache itemCache;
+    @Mock
+    private BookingLockProvider bookingLocks;
+    @Mock
+    private BookingLifecycleScheduler lifecycle;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingArchiver archiver;
+    @Mock
+    private OptimisticRetry retry;
+    @Mock
+    private BookingStatusBatchRepository statusBatchRepository;
+    @Mock
+    private ArchivedBookingRepository archivedRepository;
     private Booking booking;
     private Item item;
     private User user;
@@ -74,6 +128,20 @@ class BookingServiceTest {
                 .booker(user)
                 .status(BookingStatus.REJECTED)
                 .build();
+
+        when(bookingLocks.withItemLock(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(bookingLocks.withItemLocks(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(bookingLocks.isFree(anyLong(), any(), any())).thenReturn(true);
+        when(retry.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(statusBatchRepository.updateStatuses(any(), any())).thenAnswer(invocation ->
+                invocation.<List<Booking>>getArgument(0).stream()
+                        .map(Booking::getId)
+                        .collect(Collectors.toSet()));
+        when(archiver.horizon()).thenReturn(LocalDateTime.now().minusDays(90));
+        when(bookingLocks.isFreeOfApproved(anyLong(), any(), any())).thenReturn(true);
     }
 
     @Test
@@ -82,9 +150,14 @@ class BookingServiceTest {
 
         when(itemRepository.findById(bookingDto.getItemId())).thenReturn(Optional.of(item));
         when(userRepository.findById(bookingDto.getBookerId())).thenReturn(Optional.of(user));
-        when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingService.addBooking(1L, bookingDto))
-                .thenReturn(BookingMapper.toBookingInfoDto(booking));
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
+        BookingInfoDto added = bookingService.addBooking(1L, bookingDto);
+        assertEquals(BookingMapper.toBookingInfoDto(booking), added);
+        verify(intervalIndex).put(booking);
+        verify(lifecycle).track(booking);
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) ->
+                event.getOwnerId().equals(2L) && event.getPreviousStatus() == null));
+        verify(itemCache).invalidateBookings(item.getId());
 
         assertThrows(InvalidEntityException.class, () -> {
             BookingDto exceptionBooking = BookingMapper.toBookingDto(booking);
@@ -113,6 +186,128 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void addBookingOverlappingExistingBooking() {
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+
+        when(itemRepository.findById(bookingDto.getItemId())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingLocks.isFree(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(false);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.addBooking(1L, bookingDto));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void approveBookingOverlappingApprovedBooking() {
+        item.setOwner(user);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingLocks.isFreeOfApproved(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(false);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.updateBookingStatus(1L, 1L, true));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).save(any());
+
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
+        bookingService.updateBookingStatus(1L, 1L, false);
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingRepository, never()).rejectOverlappingWaiting(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void approveExpiredBookingFails() {
+        item.setOwner(user);
+        booking.setStatus(BookingStatus.EXPIRED);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+
+        assertThrows(InvalidEntityException.class, () -> bookingService.updateBookingStatus(1L, 1L, true));
+        assertThrows(InvalidEntityException.class, () -> bookingService.updateBookingStatus(1L, 1L, false));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void updateBookingStatusesAppliesValidDecisionsInBulk() {
+        item.setOwner(user);
+        booking.setStatus(BookingStatus.WAITING);
+        Booking overlapping = waitingBooking(2L, item, booking.getStart(), booking.getEnd());
+        Booking toReject = waitingBooking(3L, item, booking.getEnd().plusDays(1), booking.getEnd().plusDays(2));
+        Booking foreign = waitingBooking(4L, Item.builder()
+                .id(2L)
+                .owner(User.builder().id(2L).build())
+                .build(), booking.getStart(), booking.getEnd());
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findAllWithItemOwnerByIdIn(any()))
+                .thenReturn(List.of(booking, overlapping, toReject, foreign));
+
+        List<BookingDecisionResult> results = bookingService.updateBookingStatuses(1L, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(3L, false),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(99L, true),
+                new BookingDecisionDto(null, true)));
+
+        assertEquals(7, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertEquals("Item is already booked for this period.", results.get(1).getError());
+        assertEquals(BookingStatus.REJECTED, results.get(2).getBooking().getStatus());
+        assertEquals("Duplicate booking.", results.get(3).getError());
+        assertEquals("Unable to approve booking. User is not owner for this item.", results.get(4).getError());
+        assertEquals("Booking not found.", results.get(5).getError());
+        assertNotNull(results.get(6).getError());
+
+        verify(bookingLocks).withItemLocks(eq(Set.of(item.getId())), any());
+        verify(statusBatchRepository).updateStatuses(any(),
+                eq(Map.of(1L, BookingStatus.APPROVED, 3L, BookingStatus.REJECTED)));
+        verify(bookingRepository).findOverlappingWaiting(item.getId(), 1L, booking.getStart(), booking.getEnd());
+        verify(bookingRepository, never()).save(any());
+        verify(intervalIndex).put(booking);
+        verify(intervalIndex).put(toReject);
+        verify(itemCache).invalidateBookings(item.getId());
+        assertEquals(BookingStatus.WAITING, overlapping.getStatus());
+    }
+
+    @Test
+    void updateBookingStatusesReportsRowsChangedConcurrently() {
+        item.setOwner(user);
+        booking.setStatus(BookingStatus.WAITING);
+        Booking other = waitingBooking(2L, item, booking.getEnd().plusDays(1), booking.getEnd().plusDays(2));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findAllWithItemOwnerByIdIn(any())).thenReturn(List.of(booking, other));
+        doReturn(Set.of(2L)).when(statusBatchRepository).updateStatuses(any(), any());
+
+        List<BookingDecisionResult> results = bookingService.updateBookingStatuses(1L, List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true)));
+
+        assertEquals("Booking was modified concurrently.", results.get(0).getError());
+        assertEquals(BookingStatus.APPROVED, results.get(1).getBooking().getStatus());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).findOverlappingWaiting(item.getId(), 1L, booking.getStart(), booking.getEnd());
+        verify(intervalIndex, never()).put(booking);
+        verify(intervalIndex).put(other);
+    }
+
+    @Test
+    void updateBookingStatusesChecksUserAndBatchSize() {
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+        assertThrows(ObjectNotFoundException.class,
+                () -> bookingService.updateBookingStatuses(1L, List.of(new BookingDecisionDto(1L, true))));
+
+        List<BookingDecisionDto> decisions = new ArrayList<>();
+        for (long id = 0; id <= BookingService.MAX_DECISIONS; id++) {
+            decisions.add(new BookingDecisionDto(id, true));
+        }
+        assertThrows(InvalidEntityException.class, () -> bookingService.updateBookingStatuses(1L, decisions));
+    }
+
     @Test
     void updateBookingStatusTest() {
         item.setOwner(user);
@@ -120,9 +315,22 @@ class BookingServiceTest {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
-        when(bookingService.updateBookingStatus(1L, 1L, true))
-                .thenReturn(BookingMapper.toBookingInfoDto(booking));
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
+        Booking overlapping = waitingBooking(5L, item, booking.getStart(), booking.getEnd());
+        when(bookingRepository.findOverlappingWaiting(item.getId(), booking.getId(), booking.getStart(),
+                booking.getEnd())).thenReturn(List.of(overlapping));
+        BookingInfoDto updated = bookingService.updateBookingStatus(1L, 1L, true);
+        assertEquals(BookingMapper.toBookingInfoDto(booking), updated);
+        verify(bookingRepository).rejectOverlappingWaiting(item.getId(), booking.getId(), booking.getStart(),
+                booking.getEnd());
+        verify(intervalIndex).rejectOverlappingWaiting(item.getId(), booking.getId(), booking.getStart(),
+                booking.getEnd());
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) ->
+                event.getBooking().getId().equals(5L) && event.getPreviousStatus() == BookingStatus.WAITING
+                        && event.getBooking().getStatus() == BookingStatus.REJECTED));
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) ->
+                event.getPreviousStatus() == BookingStatus.REJECTED
+                        && event.getBooking().getStatus() == BookingStatus.APPROVED));
 
         assertThrows(InvalidEntityException.class, () -> {
             booking.setStatus(BookingStatus.APPROVED);
@@ -175,47 +383,191 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void getCurrentBookingFallsBackToArchive() {
+        ArchivedBooking archived = ArchivedBooking.builder()
+                .id(5L)
+                .start(LocalDateTime.of(2020, Month.MAY, 25, 12, 0))
+                .end(LocalDateTime.of(2020, Month.MAY, 26, 12, 0))
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(archivedRepository.findById(5L)).thenReturn(Optional.of(archived));
+
+        BookingInfoDto found = bookingService.getCurrentBooking(1L, 5L);
+
+        assertEquals(5L, found.getId());
+        assertEquals(BookingStatus.APPROVED, found.getStatus());
+        assertThrows(ObjectNotFoundException.class, () -> bookingService.getCurrentBooking(10L, 5L));
+    }
+
     @Test
     void getBookingTest() {
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
         assertThrows(UnknownBookingState.class, () -> {
-            bookingService.getBooking(user.getId(), "TEST", 0, 10);
+            bookingService.getBooking(user.getId(), "TEST", 0, 10, null);
         });
 
         assertThrows(InvalidEntityException.class, () -> {
-            bookingService.getBooking(user.getId(), "TEST", 0, -10);
+            bookingService.getBooking(user.getId(), "TEST", 0, -10, null);
         });
 
         assertThrows(InvalidEntityException.class, () -> {
-            bookingService.getBooking(user.getId(), "TEST", -1, 10);
+            bookingService.getBooking(user.getId(), "TEST", -1, 10, null);
         });
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
         assertThrows(ObjectNotFoundException.class, () -> {
-            bookingService.getBooking(user.getId(), "ALL", 0, 10);
+            bookingService.getBooking(user.getId(), "ALL", 0, 10, null);
         });
     }
 
     @Test
     void getOwnerBookingTest() {
         assertThrows(UnknownBookingState.class, () -> {
-            bookingService.getOwnerBooking(user.getId(), "TEST", 0, 10);
+            bookingService.getOwnerBooking(user.getId(), "TEST", 0, 10, null);
         });
 
         assertThrows(InvalidEntityException.class, () -> {
-            bookingService.getOwnerBooking(user.getId(), "TEST", 0, -10);
+            bookingService.getOwnerBooking(user.getId(), "TEST", 0, -10, null);
         });
 
         assertThrows(InvalidEntityException.class, () -> {
-            bookingService.getOwnerBooking(user.getId(), "TEST", -1, 10);
+            bookingService.getOwnerBooking(user.getId(), "TEST", -1, 10, null);
         });
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ObjectNotFoundException.class, () -> {
-            bookingService.getOwnerBooking(user.getId(), "ALL", 0, 10);
+            bookingService.getOwnerBooking(user.getId(), "ALL", 0, 10, null);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingPagesByStartAndIdCursor() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        Booking older = Booking.builder()
+                .id(2L)
+                .start(booking.getStart().minusDays(1))
+                .end(booking.getEnd())
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingInfoDto(booking), BookingMapper.toBookingInfoDto(older)));
+
+        CursorPage<BookingInfoDto> page = bookingService.getBooking(user.getId(), "PAST", 0, 2, null);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+        verify(bookingRepository).findBookings(eq(BookingRole.BOOKER), eq(user.getId()), eq(BookingState.PAST),
+                any(), isNull(), eq(0), eq(2));
+
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+        CursorPage<BookingInfoDto> nextPage = bookingService.getBooking(user.getId(), "PAST", 4, 2, page.getNextCursor());
+
+        assertTrue(nextPage.getItems().isEmpty());
+        assertNull(nextPage.getNextCursor());
+        verify(bookingRepository).findBookings(eq(BookingRole.BOOKER), eq(user.getId()), eq(BookingState.PAST), any(),
+                argThat(cursor -> cursor != null && cursor.getStart().equals(older.getStart()) && cursor.getId().equals(older.getId())),
+                eq(0), eq(2));
+        assertThrows(InvalidEntityException.class,
+                () -> bookingService.getBooking(user.getId(), "PAST", 0, 2, PageCursor.encode("bad")));
+    }
+
+    @Test
+    void getOwnerBookingUsesOwnerRoleAndLegacyOffset() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        List<BookingInfoDto> newer = LongStream.rangeClosed(10, 29)
+                .mapToObj(id -> BookingInfoDto.builder()
+                        .id(id)
+                        .start(booking.getStart().plusDays(id))
+                        .build())
+                .collect(Collectors.toList());
+        List<BookingInfoDto> hot = new ArrayList<>(newer);
+        hot.add(BookingMapper.toBookingInfoDto(booking));
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), eq(20), eq(10)))
+                .thenReturn(List.of(BookingMapper.toBookingInfoDto(booking)));
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), eq(0), eq(30))).thenReturn(hot);
+
+        CursorPage<BookingInfoDto> page = bookingService.getOwnerBooking(user.getId(), "WAITING", 25, 10, null);
+
+        assertEquals(List.of(BookingMapper.toBookingInfoDto(booking)), page.getItems());
+        assertNull(page.getNextCursor());
+        verify(bookingRepository).findBookings(eq(BookingRole.OWNER), eq(user.getId()), eq(BookingState.WAITING),
+                any(), isNull(), eq(20), eq(10));
+        verify(bookingRepository).findArchivedBookings(eq(BookingRole.OWNER), eq(user.getId()),
+                eq(BookingState.WAITING), any(), isNull(), eq(0), eq(30));
+    }
+
+    @Test
+    void getBookingAlignsOffsetToRequestedSizeAboveCap() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+
+        bookingService.getBooking(user.getId(), "WAITING", 150, 150, null);
+
+        verify(bookingRepository).findBookings(eq(BookingRole.BOOKER), eq(user.getId()), eq(BookingState.WAITING),
+                any(), isNull(), eq(150), eq(PageCursor.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void getBookingMergesArchiveOnlyBeyondTheHotWindow() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        BookingInfoDto recent = BookingInfoDto.builder()
+                .id(5L)
+                .start(LocalDateTime.now().minusDays(100))
+                .build();
+        BookingInfoDto archived = BookingInfoDto.builder()
+                .id(3L)
+                .start(LocalDateTime.now().minusDays(200))
+                .build();
+        BookingInfoDto olderArchived = BookingInfoDto.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(300))
+                .build();
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(recent));
+        when(bookingRepository.findArchivedBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(archived, olderArchived));
+
+        CursorPage<BookingInfoDto> page = bookingService.getBooking(user.getId(), "PAST", 0, 2, null);
+        assertEquals(List.of(recent, archived), page.getItems());
+        assertNotNull(page.getNextCursor());
+
+        bookingService.getBooking(user.getId(), "FUTURE", 0, 2, null);
+        verify(bookingRepository, never()).findArchivedBookings(any(), anyLong(), eq(BookingState.FUTURE), any(),
+                any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getBookingRefusesDeepOffsetsThatReachTheArchive() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.findBookings(any(), anyLong(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+
+        assertThrows(InvalidEntityException.class, () -> bookingService.getBooking(user.getId(), "PAST",
+                BookingService.MAX_ARCHIVE_OFFSET + 10, 10, null));
+        verify(bookingRepository, never()).findArchivedBookings(any(), anyLong(), any(), any(), any(), anyInt(),
+                anyInt());
+
+        bookingService.getBooking(user.getId(), "FUTURE", BookingService.MAX_ARCHIVE_OFFSET + 10, 10, null);
+    }
+
+    private Booking waitingBooking(Long id, Item bookedItem, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(bookedItem)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
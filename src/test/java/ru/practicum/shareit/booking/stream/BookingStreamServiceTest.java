@@ -0,0 +1,180 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingStreamServiceTest {
+
+    private ExecutorService senders;
+    private UserJpaRepository userRepository;
+    private BookingStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        senders = Executors.newSingleThreadExecutor();
+        userRepository = mock(UserJpaRepository.class);
+        streamService = new BookingStreamService(userRepository, 4, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                senders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    void subscribeRequiresExistingUser() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(ObjectNotFoundException.class, () -> streamService.subscribe(1L));
+    }
+
+    @Test
+    void pushesChangesOnlyToTheItemOwner() throws InterruptedException {
+        RecordingEmitter owner = new RecordingEmitter(null, 2);
+        RecordingEmitter other = new RecordingEmitter(null, 1);
+        streamService.register(1L, owner);
+        streamService.register(2L, other);
+
+        streamService.onBookingChanged(changed(1L, 10L));
+        streamService.onBookingChanged(changed(1L, 11L));
+
+        assertTrue(owner.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(2, owner.events.size());
+        assertEquals(1, other.sent.getCount());
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWhenItsBufferOverflows() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release, 1);
+        streamService.register(1L, slow);
+
+        streamService.onBookingChanged(changed(1L, 1L));
+        assertTrue(slow.sent.await(5, TimeUnit.SECONDS));
+        for (long id = 2; id <= 6; id++) {
+            streamService.onBookingChanged(changed(1L, id));
+        }
+
+        assertEquals(0, streamService.subscriberCount(1L));
+        release.countDown();
+        streamService.onBookingChanged(changed(1L, 7L));
+        assertEquals(1, slow.events.size());
+    }
+
+    @Test
+    void stalledSendIsDroppedSoOtherSubscribersStillReceiveEvents() throws InterruptedException {
+        streamService.shutdown();
+        senders = Executors.newSingleThreadExecutor();
+        streamService = new BookingStreamService(userRepository, 4, Duration.ofMinutes(1), Duration.ofMillis(100),
+                senders);
+        RecordingEmitter stalled = new RecordingEmitter(new CountDownLatch(1), 1);
+        RecordingEmitter healthy = new RecordingEmitter(null, 1);
+        streamService.register(1L, stalled);
+        streamService.register(2L, healthy);
+
+        streamService.onBookingChanged(changed(1L, 1L));
+        assertTrue(stalled.sent.await(5, TimeUnit.SECONDS));
+        streamService.onBookingChanged(changed(2L, 2L));
+
+        assertTrue(healthy.sent.await(2, TimeUnit.SECONDS));
+        assertEquals(0, streamService.subscriberCount(1L));
+        assertEquals(1, streamService.subscriberCount(2L));
+    }
+
+    @Test
+    void drainYieldsTheSenderAfterOneBatch() throws InterruptedException {
+        streamService.shutdown();
+        senders = Executors.newSingleThreadExecutor();
+        streamService = new BookingStreamService(userRepository, BookingStreamService.DRAIN_BATCH * 2,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), senders);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter busy = new RecordingEmitter(null, BookingStreamService.DRAIN_BATCH * 2);
+        AtomicInteger sentBeforeOther = new AtomicInteger(-1);
+        CountDownLatch otherSent = new CountDownLatch(1);
+        streamService.register(1L, busy);
+        streamService.register(2L, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sentBeforeOther.set(busy.events.size());
+                otherSent.countDown();
+            }
+        });
+        senders.execute(() -> await(release));
+
+        for (long id = 1; id <= BookingStreamService.DRAIN_BATCH * 2; id++) {
+            streamService.onBookingChanged(changed(1L, id));
+        }
+        streamService.onBookingChanged(changed(2L, 100L));
+        release.countDown();
+
+        assertTrue(otherSent.await(5, TimeUnit.SECONDS));
+        assertEquals(BookingStreamService.DRAIN_BATCH, sentBeforeOther.get());
+        assertTrue(busy.sent.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BookingChangedEvent changed(Long ownerId, Long bookingId) {
+        return new BookingChangedEvent(ownerId, BookingInfoDto.builder()
+                .id(bookingId)
+                .status(BookingStatus.WAITING)
+                .build(), null);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch sent;
+        private final List<SseEventBuilder> events = new CopyOnWriteArrayList<>();
+
+        private RecordingEmitter(CountDownLatch release, int expected) {
+            this.release = release;
+            this.sent = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            events.add(builder);
+            sent.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Send interrupted.", exception);
+                }
+            }
+        }
+    }
+}
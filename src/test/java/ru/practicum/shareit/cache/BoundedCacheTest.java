@@ -0,0 +1,61 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoundedCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void getLoadsOnceAndEvictsLeastRecentlyUsed() {
+        assertEquals("value1", cache.get(1L, this::load));
+        assertEquals("value1", cache.get(1L, this::load));
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        cache.get(3L, this::load);
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(new CacheStats(3, 4, 2, 2), cache.getStats());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        cache.get(1L, this::load);
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.get(1L, this::load);
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(new CacheStats(1, 2, 1, 1), cache.getStats());
+    }
+
+    @Test
+    void invalidationDropsEntriesAndValuesLoadedConcurrently() {
+        cache.get(1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, key -> {
+            cache.invalidateAll();
+            return load(key);
+        });
+        cache.get(1L, this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getStats().getSize());
+    }
+
+    private String load(Long key) {
+        loads.incrementAndGet();
+        return "value" + key;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 32;
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, key -> {
+                loads.incrementAndGet();
+                await(release);
+                return "item" + key;
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("item1", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertTrue(loads.get() < THREADS);
+        assertEquals("item1", singleFlight.execute(1L, key -> "item" + key));
+    }
+
+    @Test
+    void failuresArePropagatedAndNotRemembered() {
+        assertThrows(ObjectNotFoundException.class, () -> singleFlight.execute(1L, key -> {
+            throw new ObjectNotFoundException("Item not found.");
+        }));
+        assertEquals("item1", singleFlight.execute(1L, key -> "item" + key));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.IdempotencyKeyReusedException;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.user.dto.UserInfoDto;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {"shareit.idempotency.store=database", "shareit.idempotency.ttl=PT1H"})
+@Import({DatabaseIdempotencyStore.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseIdempotencyStoreTest {
+
+    private static final IdempotencyKey KEY = new IdempotencyKey("POST /bookings", 1L, "retry-1");
+
+    @Autowired
+    private DatabaseIdempotencyStore store;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM idempotency_key", new MapSqlParameterSource());
+    }
+
+    @Test
+    void retryIsAnsweredWithTheStoredResponse() {
+        BookingInfoDto first = store.execute(KEY, "a", BookingInfoDto.class, this::write);
+        BookingInfoDto retry = store.execute(KEY, "a", BookingInfoDto.class, this::write);
+
+        assertEquals(first, retry);
+        assertEquals(1, writes.get());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute(KEY, "b", BookingInfoDto.class, this::write));
+    }
+
+    @Test
+    void failedWriteLeavesNoKey() {
+        assertThrows(IllegalStateException.class, () -> store.execute(KEY, "a", BookingInfoDto.class, () -> {
+            throw new IllegalStateException();
+        }));
+
+        store.execute(KEY, "a", BookingInfoDto.class, this::write);
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void expiredKeysArePurgedAndReusable() {
+        store.execute(KEY, "a", BookingInfoDto.class, this::write);
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = :created",
+                new MapSqlParameterSource("created", LocalDateTime.now().minusHours(2)));
+
+        store.execute(KEY, "b", BookingInfoDto.class, this::write);
+        assertEquals(2, writes.get());
+        assertEquals(0, store.purgeExpired());
+
+        jdbcTemplate.update("UPDATE idempotency_key SET created_at = :created",
+                new MapSqlParameterSource("created", LocalDateTime.now().minusHours(2)));
+        assertEquals(1, store.purgeExpired());
+    }
+
+    private BookingInfoDto write() {
+        return BookingInfoDto.builder()
+                .id((long) writes.incrementAndGet())
+                .start(LocalDateTime.of(2030, Month.MAY, 1, 10, 0))
+                .end(LocalDateTime.of(2030, Month.MAY, 2, 10, 0))
+                .item(ItemInfoDto.builder()
+                        .id(3L)
+                        .name("drill")
+                        .build())
+                .booker(UserInfoDto.builder()
+                        .id(1L)
+                        .name("booker")
+                        .build())
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.IdempotencyKeyReusedException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryIdempotencyStoreTest {
+
+    private static final IdempotencyKey KEY = new IdempotencyKey("POST /items", 1L, "retry-1");
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, Duration.ofHours(1));
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void retryIsAnsweredFromTheStore() {
+        ItemDto first = store.execute(KEY, "a", ItemDto.class, this::write);
+        ItemDto retry = store.execute(KEY, "a", ItemDto.class, this::write);
+
+        assertSame(first, retry);
+        assertEquals(1, writes.get());
+        store.execute(new IdempotencyKey("POST /items", 2L, "retry-1"), "a", ItemDto.class, this::write);
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        store.execute(KEY, "a", ItemDto.class, this::write);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute(KEY, "b", ItemDto.class, this::write));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void failedWriteIsNotStored() {
+        assertThrows(IllegalStateException.class, () -> store.execute(KEY, "a", ItemDto.class, () -> {
+            throw new IllegalStateException();
+        }));
+
+        store.execute(KEY, "a", ItemDto.class, this::write);
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void concurrentRetriesWriteOnce() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ItemDto>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> store.execute(KEY, "a", ItemDto.class, () -> {
+                    await(release);
+                    return write();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            ItemDto first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ItemDto> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, writes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ItemDto write() {
+        return ItemDto.builder()
+                .id((long) writes.incrementAndGet())
+                .name("drill")
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.controller;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.cache.CacheStats;
+import ru.practicum.shareit.item.cache.ItemDetails;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCacheControllerTest {
+
+    @Test
+    void getStatsReportsCacheCounters() {
+        ItemDetailsCache itemCache = new ItemDetailsCache(100, Duration.ofMinutes(5));
+        Function<Long, ItemDetails> loader = id -> new ItemDetails(ItemInfoDto.builder().id(id).build(), 2L);
+        itemCache.getDetails(1L, loader);
+        itemCache.getDetails(1L, loader);
+
+        CacheStats details = new ItemCacheController(itemCache).getStats().get("details");
+
+        assertEquals(1, details.getHits());
+        assertEquals(1, details.getMisses());
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,6 +25,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +39,8 @@ class ItemControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private ItemServiceImpl itemService;
+    @MockBean
+    private ItemImportService itemImportService;
 
     private ItemDto itemDto;
     private ItemInfoDto itemInfoDto;
@@ -68,8 +73,8 @@ class ItemControllerTest {
 
     @Test
     void getItems() throws Exception {
-        when(itemService.getItems(1L))
-                .thenReturn(List.of(itemInfoDto));
+        when(itemService.getItems(1L, null, 10))
+                .thenReturn(new CursorPage<>(List.of(itemInfoDto), "Mg"));
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1L)
@@ -79,7 +84,8 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name", is("itemName")))
                 .andExpect(jsonPath("$[0].description", is("itemDescription")))
                 .andExpect(jsonPath("$[0].available", is(true)))
-                .andExpect(jsonPath("$[0].comments", is(Collections.emptyList())));
+                .andExpect(jsonPath("$[0].comments", is(Collections.emptyList())))
+                .andExpect(header().string("X-Next-Cursor", "Mg"));
     }
 
     @Test
@@ -169,7 +175,7 @@ class ItemControllerTest {
                 .available(true)
                 .build();
 
-        when(itemService.searchItems("description"))
+        when(itemService.searchItems("description", 0, null, false, null, null))
                 .thenReturn(List.of(itemDto, secondItem));
 
 
@@ -187,4 +193,17 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[1].available", is(true)));
 
     }
+
+    @Test
+    void suggestItemNames() throws Exception {
+        when(itemService.suggestItemNames("item", 10))
+                .thenReturn(List.of("itemName", "item2Name"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "item")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("itemName")))
+                .andExpect(jsonPath("$[1]", is("item2Name")));
+    }
 }
\ No newline at end of file
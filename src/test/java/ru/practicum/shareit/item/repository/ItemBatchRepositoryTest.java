@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(ItemBatchRepository.class)
+class ItemBatchRepositoryTest {
+
+    @Autowired
+    private ItemBatchRepository batchRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void insertAllAssignsIdsAndSurfacesConstraintViolations() {
+        User owner = entityManager.persistAndFlush(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        Item item = item(owner);
+        batchRepository.insertAll(List.of(item));
+        assertNotNull(item.getId());
+
+        User missing = User.builder()
+                .id(owner.getId() + 100)
+                .build();
+        assertThrows(DataIntegrityViolationException.class,
+                () -> batchRepository.insertAll(List.of(item(owner), item(missing))));
+    }
+
+    private static Item item(User owner) {
+        return Item.builder()
+                .name("drill")
+                .description("drill")
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSearchIndex();
+        owner = User.builder()
+                .id(1L)
+                .name("owner")
+                .email("owner@user.com")
+                .build();
+        index.rebuild(List.of(
+                item(1L, "Дрель", "Простая дрель", true),
+                item(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                item(3L, "Клей Момент", "Тюбик суперклея марки Момент", true),
+                item(4L, "Дрель ударная", "Не работает", false)));
+    }
+
+    @Test
+    void searchMatchesSubstringsOfNameAndDescription() {
+        assertEquals(List.of(1L), ids(search("дРелЬ")));
+        assertEquals(List.of(2L), ids(search("аккУМУляторная")));
+        assertEquals(List.of(3L), ids(search("клей")));
+        assertEquals(List.of(1L, 2L, 3L), ids(search("р")));
+        assertEquals(List.of(1L, 2L), ids(search("ая")));
+        assertTrue(search("дрель аккумуляторная").isEmpty());
+        assertTrue(search("").isEmpty());
+    }
+
+    @Test
+    void putAndRemoveKeepIndexUpToDate() {
+        Item drill = item(1L, "Дрель", "Простая дрель", false);
+        index.put(drill);
+        assertTrue(search("дрель").isEmpty());
+
+        drill.setAvailable(true);
+        drill.setName("Перфоратор");
+        index.put(drill);
+        assertEquals(List.of(1L), ids(search("перфоратор")));
+        assertEquals(List.of(1L), ids(search("простая")));
+
+        index.remove(1L);
+        assertTrue(search("перфоратор").isEmpty());
+
+        index.put(item(4L, "Дрель ударная", "Работает", true));
+        assertEquals(List.of(4L), ids(search("ударная")));
+
+        index.removeByOwner(owner.getId());
+        assertTrue(search("о").isEmpty());
+    }
+
+    @Test
+    void searchRanksNameAndWholeWordHitsFirstAndKeepsOnlyRequestedPage() {
+        index.rebuild(List.of(
+                item(1L, "Набор", "Внутри дрель и биты", true),
+                item(2L, "Дрели", "Две штуки", true),
+                item(3L, "Дрель", "Дрель, дрель и еще раз дрель", true),
+                item(4L, "Дрель", "Обычная", true)));
+
+        assertEquals(List.of(3L, 2L, 4L, 1L), ids(search("дрел")));
+        assertEquals(List.of(3L, 4L, 1L), ids(search("дрель")));
+        assertEquals(List.of(3L, 4L), ids(index.search("дрель", 0, 2)));
+        assertEquals(List.of(1L), ids(index.search("дрель", 2, 2)));
+        assertTrue(index.search("дрель", 3, 2).isEmpty());
+        assertTrue(index.search("дрель", 0, 0).isEmpty());
+    }
+
+    @Test
+    void fuzzySearchToleratesTyposAndTransliteration() {
+        index.put(item(5L, "Drill", "Cordless", true));
+
+        assertTrue(search("drell").isEmpty());
+        assertEquals(List.of(1L, 5L), ids(index.search("drell", 0, 10, true)));
+        assertEquals(List.of(2L), ids(index.search("атвертка", 0, 10, true)));
+        assertEquals(List.of(1L), ids(index.search("дрел", 0, 10, true)));
+        assertTrue(index.search("xyzzy", 0, 10, true).isEmpty());
+
+        index.remove(1L);
+        assertEquals(List.of(5L), ids(index.search("drell", 0, 10, true)));
+    }
+
+    @Test
+    void suggestReturnsNamesStartingWithPrefix() {
+        index.put(item(5L, "Дрель-шуруповерт", "Новая", true));
+        index.put(item(6L, "дрель", "Еще одна", true));
+
+        assertEquals(List.of("Дрель", "Дрель-шуруповерт"), index.suggest("ДР", 10));
+        assertEquals(List.of("Дрель"), index.suggest("дрель", 1));
+        assertEquals(List.of("Клей Момент"), index.suggest("клей м", 10));
+        assertTrue(index.suggest("молоток", 10).isEmpty());
+        assertTrue(index.suggest("", 10).isEmpty());
+
+        index.remove(5L);
+        assertEquals(List.of("Дрель"), index.suggest("дрель", 10));
+        index.remove(1L);
+        assertEquals(List.of("дрель"), index.suggest("дрель", 10));
+    }
+
+    @Test
+    void bkTreeFindsWordsWithinDistance() {
+        BkTree tree = new BkTree();
+        List.of("drill", "drel", "дрель", "drill", "grill", "hammer").forEach(tree::add);
+
+        List<String> found = new ArrayList<>();
+        tree.search("drell", 1, (word, distance) -> found.add(word));
+        found.sort(String::compareTo);
+
+        assertEquals(5, tree.size());
+        assertEquals(List.of("drel", "drill"), found);
+        assertEquals(2, BkTree.distance("drell", "grill"));
+    }
+
+    @Test
+    void bkTreeDropsRemovedWordsAndCompacts() {
+        BkTree tree = new BkTree();
+        List.of("drill", "drel", "grill", "hammer").forEach(tree::add);
+
+        tree.remove("drill");
+        List<String> found = new ArrayList<>();
+        tree.search("drell", 1, (word, distance) -> found.add(word));
+        assertEquals(List.of("drel"), found);
+        assertEquals(3, tree.size());
+        assertEquals(1, tree.deleted());
+
+        tree.add("drill");
+        assertEquals(4, tree.size());
+        assertEquals(0, tree.deleted());
+
+        List.of("drill", "drel", "grill").forEach(tree::remove);
+        assertEquals(1, tree.size());
+        assertEquals(0, tree.deleted());
+        found.clear();
+        tree.search("hamer", 1, (word, distance) -> found.add(word));
+        assertEquals(List.of("hammer"), found);
+    }
+
+    @Test
+    void removingLastItemWithNameTokenDropsItFromFuzzyTree() {
+        index.remove(2L);
+        index.remove(4L);
+
+        assertTrue(index.search("атвертка", 0, 10, true).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("дрел", 0, 10, true)));
+    }
+
+    private List<ItemDto> search(String text) {
+        return index.search(text, 0, Integer.MAX_VALUE);
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build();
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
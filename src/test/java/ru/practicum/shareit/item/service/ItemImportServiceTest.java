@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemBatchRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceTest {
+
+    @Mock
+    private ItemBatchRepository batchRepository;
+
+    @Mock
+    private UserJpaRepository userRepository;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    private ItemImportService importService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        importService = new ItemImportService(batchRepository, userRepository, itemRequestRepository, searchIndex,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), objectMapper);
+        user = User.builder()
+                .id(1L)
+                .name("user")
+                .email("user@user.com")
+                .build();
+        ItemRequest itemRequest = ItemRequest.builder()
+                .id(1L)
+                .requestor(user)
+                .description("request")
+                .build();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of(itemRequest));
+        AtomicLong ids = new AtomicLong();
+        doAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            items.forEach(item -> item.setId(ids.incrementAndGet()));
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+    }
+
+    @Test
+    void importItemsReportsRowErrorsAndInsertsValidRows() {
+        List<ItemDto> rows = List.of(
+                item("drill", null),
+                ItemDto.builder().name("saw").available(true).build(),
+                item("ladder", 1L),
+                item("tent", 5L));
+
+        List<ItemImportResult> results = importService.importItems(user.getId(), rows);
+
+        assertEquals(4, results.size());
+        assertEquals(1L, results.get(0).getId());
+        assertEquals("Invalid item body.", results.get(1).getError());
+        assertNull(results.get(1).getId());
+        assertEquals(2L, results.get(2).getId());
+        assertEquals("Request not found.", results.get(3).getError());
+        verify(userRepository, times(1)).findById(user.getId());
+        verify(itemRequestRepository, times(1)).findAllById(any());
+        verify(batchRepository, times(1)).insertAll(anyList());
+        verify(searchIndex, times(2)).put(any(Item.class));
+    }
+
+    @Test
+    void importItemsSplitsLargeBatchesIntoChunks() {
+        List<ItemDto> rows = IntStream.range(0, ItemImportService.CHUNK_SIZE * 2 + 1)
+                .mapToObj(i -> item("item" + i, null))
+                .collect(Collectors.toList());
+
+        List<ItemImportResult> results = importService.importItems(user.getId(), rows);
+
+        assertEquals(rows.size(), results.size());
+        assertEquals(rows.size() - 1, results.get(rows.size() - 1).getRow());
+        assertEquals((long) rows.size(), results.get(rows.size() - 1).getId());
+        verify(batchRepository, times(3)).insertAll(anyList());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void importItemsFromNdjson() throws IOException {
+        String body = "{\"name\":\"drill\",\"description\":\"drill\",\"available\":true}\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"name\":\"ladder\",\"description\":\"ladder\",\"available\":false,\"requestId\":1}\n";
+
+        List<ItemImportResult> results = importService.importItems(user.getId(),
+                new BufferedReader(new StringReader(body)));
+
+        assertEquals(3, results.size());
+        assertEquals(1L, results.get(0).getId());
+        assertEquals("Malformed item row.", results.get(1).getError());
+        assertEquals(2, results.get(2).getRow());
+        assertEquals(2L, results.get(2).getId());
+    }
+
+    @Test
+    void importItemsRejectsValuesLongerThanTheirColumns() {
+        ItemDto longDescription = item("saw", null);
+        longDescription.setDescription("d".repeat(ItemImportService.MAX_DESCRIPTION_LENGTH + 1));
+
+        List<ItemImportResult> results = importService.importItems(user.getId(),
+                List.of(item("n".repeat(ItemImportService.MAX_NAME_LENGTH + 1), null), longDescription,
+                        item("drill", null)));
+
+        assertEquals("Item name is longer than 40 characters.", results.get(0).getError());
+        assertEquals("Item description is longer than 255 characters.", results.get(1).getError());
+        assertEquals(1L, results.get(2).getId());
+    }
+
+    @Test
+    void importItemsRetriesFailedBatchRowByRow() {
+        AtomicLong ids = new AtomicLong();
+        doAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(item -> item.getName().equals("broken"))) {
+                throw new DataIntegrityViolationException("constraint");
+            }
+            items.forEach(item -> item.setId(ids.incrementAndGet()));
+            return null;
+        }).when(batchRepository).insertAll(anyList());
+
+        List<ItemImportResult> results = importService.importItems(user.getId(),
+                List.of(item("drill", null), item("broken", null), item("ladder", null)));
+
+        assertEquals(1L, results.get(0).getId());
+        assertEquals("Item violates a database constraint.", results.get(1).getError());
+        assertNull(results.get(1).getId());
+        assertEquals(2L, results.get(2).getId());
+        verify(batchRepository, times(4)).insertAll(anyList());
+        verify(searchIndex, times(2)).put(any(Item.class));
+    }
+
+    @Test
+    void importItemsWithUnknownOwner() {
+        assertThrows(ObjectNotFoundException.class, () -> importService.importItems(99L, List.of(item("drill", null))));
+        verify(batchRepository, never()).insertAll(anyList());
+    }
+
+    private ItemDto item(String name, Long requestId) {
+        return ItemDto.builder()
+                .name(name)
+                .description(name)
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+}
@@ -5,16 +5,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.TimeRange;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.exception.InvalidEntityException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -23,20 +30,29 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.retry.OptimisticRetry;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserJpaRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -52,12 +68,27 @@ class ItemServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
     @Mock
     private CommentRepository commentRepository;
 
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private OptimisticRetry retry;
+
+    @Spy
+    private ItemDetailsCache itemCache = new ItemDetailsCache(100, Duration.ofMinutes(5));
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -69,6 +100,8 @@ class ItemServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
         user = User.builder()
                 .id(1L)
                 .name("user")
@@ -116,14 +149,45 @@ class ItemServiceImplTest {
         when(userRepository.existsById(user.getId())).thenReturn(true);
 
         when(commentRepository.existsById(item.getId())).thenReturn(true);
-        when(itemRepository.findAllByOwnerId(user.getId())).thenReturn(List.of(item));
+        when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(eq(user.getId()), eq(0L), any()))
+                .thenReturn(List.of(item));
         when(commentRepository.findByItem_Id(item.getId())).thenReturn(List.of(comment));
-        when(bookingRepository.findAllByItemIdOrderByStartAsc(item.getId())).thenReturn(List.of(booking, booking1));
+        booking1.setItem(item);
+        when(bookingRepository.findLastBookings(any(), any(), any())).thenReturn(List.of(booking1));
 
-        List<ItemInfoDto> items = itemService.getItems(user.getId());
+        List<ItemInfoDto> items = itemService.getItems(user.getId(), null, 10).getItems();
 
         assertNotNull(items);
         assertEquals(items.get(0).getId(), item.getId());
+        assertEquals(items.get(0).getLastBooking().getId(), booking1.getId());
+        assertNull(items.get(0).getNextBooking());
+    }
+
+    @Test
+    void getItemsPagesByIdCursor() {
+        List<Item> firstPage = LongStream.rangeClosed(1, 4)
+                .mapToObj(id -> Item.builder().id(id).name("item" + id).owner(user).available(true).build())
+                .collect(Collectors.toList());
+        when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(eq(user.getId()), eq(0L), any()))
+                .thenReturn(firstPage);
+        when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(eq(user.getId()), eq(3L), any()))
+                .thenReturn(List.of(firstPage.get(3)));
+
+        CursorPage<ItemInfoDto> page = itemService.getItems(user.getId(), null, 3);
+        assertEquals(List.of(1L, 2L, 3L),
+                page.getItems().stream().map(ItemInfoDto::getId).collect(Collectors.toList()));
+        assertNotNull(page.getNextCursor());
+
+        CursorPage<ItemInfoDto> lastPage = itemService.getItems(user.getId(), page.getNextCursor(), 3);
+        assertEquals(4L, lastPage.getItems().get(0).getId());
+        assertNull(lastPage.getNextCursor());
+
+        verify(itemRepository).findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(user.getId(), 0L, PageRequest.of(0, 4));
+        itemService.getItems(user.getId(), null, 1000);
+        verify(itemRepository).findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(user.getId(), 0L,
+                PageRequest.of(0, PageCursor.MAX_PAGE_SIZE + 1));
+        assertThrows(InvalidEntityException.class, () -> itemService.getItems(user.getId(), "not a cursor", 3));
+        assertThrows(InvalidEntityException.class, () -> itemService.getItems(user.getId(), null, 0));
     }
 
     @Test
@@ -137,10 +201,9 @@ class ItemServiceImplTest {
 
         when(commentRepository.existsById(item.getId())).thenReturn(true);
         when(commentRepository.getReferenceById(item.getId())).thenReturn(comment);
-        when(bookingRepository.findAllByItemIdOrderByStartAsc(anyLong()))
+        booking.setItem(item);
+        when(bookingRepository.findLastBookings(any(), any(), any()))
                 .thenReturn(List.of(booking));
-        when(bookingRepository.findAllByBookerIdAndEndIsBefore(anyLong(),
-                any(), any())).thenReturn(List.of(booking));
 
         ItemInfoDto result = itemService.getItem(1L, 1L);
 
@@ -149,6 +212,36 @@ class ItemServiceImplTest {
         assertNull(result.getNextBooking());
     }
 
+    @Test
+    void getItemIsServedFromCacheUntilInvalidated() {
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findByItem_Id(item.getId())).thenReturn(List.of(comment));
+
+        ItemInfoDto first = itemService.getItem(item.getId(), 2L);
+        first.setName("changed by caller");
+        ItemInfoDto second = itemService.getItem(item.getId(), 2L);
+
+        assertEquals("item1", second.getName());
+        assertEquals(1, second.getComments().size());
+        assertNull(second.getLastBooking());
+        verify(itemRepository, times(1)).findById(item.getId());
+        verify(commentRepository, times(1)).findByItem_Id(item.getId());
+
+        itemService.getItem(item.getId(), user.getId());
+        itemService.getItem(item.getId(), user.getId());
+        verify(bookingRepository, times(1)).findLastBookings(any(), any(), any());
+
+        itemCache.invalidateBookings(item.getId());
+        itemService.getItem(item.getId(), user.getId());
+        verify(bookingRepository, times(2)).findLastBookings(any(), any(), any());
+        verify(itemRepository, times(1)).findById(item.getId());
+
+        itemCache.invalidateDetails(item.getId());
+        itemService.getItem(item.getId(), 2L);
+        verify(itemRepository, times(2)).findById(item.getId());
+        assertEquals(4L, itemCache.getStats().get("details").getHits());
+    }
+
     @Test
     void addItem() {
         ItemDto itemDto = ItemMapper.toDto(item);
@@ -168,6 +261,7 @@ class ItemServiceImplTest {
         itemDto.setRequestId(null);
         addedItem = itemService.addItem(user.getId(), itemDto);
         assertNull(addedItem.getRequestId());
+        verify(searchIndex, times(2)).put(any(Item.class));
 
         assertThrows(InvalidEntityException.class, () -> {
             itemDto.setName("");
@@ -182,17 +276,70 @@ class ItemServiceImplTest {
 
         itemService.deleteItem(1L);
         verify(itemRepository).deleteById(1L);
+        verify(searchIndex).remove(1L);
+        verify(bookingIntervalIndex).removeItem(1L);
     }
 
     @Test
     void searchItems() {
         ItemDto itemDto = ItemMapper.toDto(item);
 
-        when(itemService.searchItems("")).thenReturn(Collections.emptyList());
-        assertTrue(itemRepository.search("").isEmpty());
+        assertTrue(itemService.searchItems("", 0, 10, false, null, null).isEmpty());
+
+        when(searchIndex.search("item1", 0, 10, false)).thenReturn(List.of(itemDto));
+        assertEquals(List.of(itemDto), itemService.searchItems("item1", 0, 10, false, null, null));
+
+        when(searchIndex.search("itme1", 0, 10, true)).thenReturn(List.of(itemDto));
+        assertEquals(List.of(itemDto), itemService.searchItems("itme1", 0, 10, true, null, null));
 
-        when(itemService.searchItems("item1")).thenReturn(List.of(itemDto));
-        assertFalse(itemRepository.search("item1").isEmpty());
+        when(searchIndex.search("item1", 0, Integer.MAX_VALUE, false)).thenReturn(List.of(itemDto, itemDto));
+        assertEquals(2, itemService.searchItems("item1", 0, null, false, null, null).size());
+
+        assertThrows(InvalidEntityException.class, () ->
+                itemService.searchItems("item1", -1, 10, false, null, null));
+    }
+
+    @Test
+    void searchAvailableItems() {
+        ItemDto itemDto = ItemMapper.toDto(item);
+        LocalDateTime start = LocalDateTime.of(2030, Month.MAY, 1, 12, 0);
+        LocalDateTime end = start.plusDays(2);
+
+        when(searchIndex.search(eq("item1"), eq(0), eq(10), eq(false), any())).thenAnswer(invocation -> {
+            Predicate<Long> filter = invocation.getArgument(4);
+            return filter.test(item.getId()) ? List.of(itemDto) : List.of();
+        });
+
+        when(bookingIntervalIndex.isFree(item.getId(), start, end)).thenReturn(true);
+        assertEquals(List.of(itemDto), itemService.searchItems("item1", 0, 10, false, start, end));
+
+        when(bookingIntervalIndex.isFree(item.getId(), start, end)).thenReturn(false);
+        assertTrue(itemService.searchItems("item1", 0, 10, false, start, end).isEmpty());
+
+        assertThrows(InvalidEntityException.class, () ->
+                itemService.searchItems("item1", 0, 10, false, start, null));
+        assertThrows(InvalidEntityException.class, () ->
+                itemService.searchItems("item1", 0, 10, false, end, start));
+    }
+
+    @Test
+    void suggestItemNames() {
+        when(searchIndex.suggest("it", 10)).thenReturn(List.of("item1"));
+        assertEquals(List.of("item1"), itemService.suggestItemNames("it", 10));
+
+        itemService.suggestItemNames("it", 1000);
+        verify(searchIndex).suggest("it", 50);
+
+        assertThrows(InvalidEntityException.class, () -> itemService.suggestItemNames("it", -1));
+    }
+
+    @Test
+    void rebuildSearchIndex() {
+        when(itemRepository.findAllByAvailableTrue()).thenReturn(List.of(item));
+
+        itemService.rebuildSearchIndex();
+
+        verify(searchIndex).rebuild(List.of(item));
     }
 
     @Test
@@ -222,6 +369,7 @@ class ItemServiceImplTest {
                 .build()));
 
         assertNotNull(itemService.addComment(1L, 1L, commentDto));
+        verify(itemCache).invalidateDetails(1L);
 
         assertThrows(InvalidEntityException.class, () -> {
             commentDto.setText("");
@@ -243,6 +391,29 @@ class ItemServiceImplTest {
         });
     }
 
+    @Test
+    void getCalendarFillsGapsBetweenBusyRanges() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(bookingIntervalIndex.busyRanges(1L, from, to)).thenReturn(List.of(
+                new TimeRange(from, from.plusDays(2)),
+                new TimeRange(from.plusDays(5), from.plusDays(6))));
+
+        ItemCalendarDto calendar = itemService.getCalendar(1L, from, to);
+
+        assertEquals(List.of(
+                new ItemCalendarDto.Range(from, from.plusDays(2), false),
+                new ItemCalendarDto.Range(from.plusDays(2), from.plusDays(5), true),
+                new ItemCalendarDto.Range(from.plusDays(5), from.plusDays(6), false),
+                new ItemCalendarDto.Range(from.plusDays(6), to, true)), calendar.getRanges());
+        verifyNoInteractions(bookingRepository);
+
+        assertThrows(InvalidEntityException.class, () -> itemService.getCalendar(1L, to, from));
+        when(itemRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getCalendar(1L, from, to));
+    }
+
     @Test
     void updateItem() {
         ItemDto itemDto = ItemMapper.toDto(item);
@@ -260,6 +431,8 @@ class ItemServiceImplTest {
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         assertEquals(itemRequest.getId(), itemService.updateItem(1L, 1L, updatedItemDto).getRequestId());
+        verify(searchIndex).put(item);
+        verify(itemCache).invalidate(1L);
 
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
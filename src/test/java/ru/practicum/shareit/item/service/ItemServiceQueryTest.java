@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.retry.OptimisticRetry;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemServiceImpl.class, ItemSearchIndex.class, BookingIntervalIndex.class, ItemDetailsCache.class,
+        OptimisticRetry.class})
+class ItemServiceQueryTest {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        booker = entityManager.persist(user("booker"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageOfItemsResolvesBookingsWithConstantQueries() {
+        User fewOwner = ownerWithBookedItems("few", 2);
+        User manyOwner = ownerWithBookedItems("many", 30);
+
+        assertEquals(3, preparedStatements(fewOwner, 2));
+        assertEquals(3, preparedStatements(manyOwner, 30));
+    }
+
+    private long preparedStatements(User owner, int items) {
+        entityManager.clear();
+        statistics.clear();
+        List<ItemInfoDto> page = itemService.getItems(owner.getId(), null, 100).getItems();
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(items, page.size());
+        page.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+        });
+        return statements;
+    }
+
+    private User ownerWithBookedItems(String name, int items) {
+        User owner = entityManager.persist(user(name));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items; i++) {
+            Item item = entityManager.persist(Item.builder()
+                    .name(name + i)
+                    .description("item")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            entityManager.persist(booking(item, now.minusDays(2), now.minusDays(1)));
+            entityManager.persist(booking(item, now.plusDays(1), now.plusDays(2)));
+        }
+        entityManager.flush();
+        return owner;
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "@user.com")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ItemRequestService.class)
+class ItemRequestServiceQueryTest {
+
+    private static final int REQUESTS = 5;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User viewer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        viewer = entityManager.persist(user("viewer"));
+        User owner = entityManager.persist(user("owner"));
+        for (int i = 0; i < REQUESTS; i++) {
+            User requestor = entityManager.persist(user("requestor" + i));
+            ItemRequest request = entityManager.persist(ItemRequest.builder()
+                    .description("request" + i)
+                    .created(LocalDateTime.now().minusHours(i))
+                    .requestor(requestor)
+                    .build());
+            for (int j = 0; j <= i; j++) {
+                entityManager.persist(Item.builder()
+                        .name("item" + i + j)
+                        .description("answer")
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfRequestsCostsConstantQueries() {
+        List<ItemRequestDto> requests = itemRequestService.getAllRequest(viewer.getId(), 0, REQUESTS);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(REQUESTS, requests.size());
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequestDto request = requests.get(i);
+            assertEquals("request" + i, request.getDescription());
+            assertEquals(viewer.getId() + 2 + i, request.getRequestor());
+            assertEquals(i + 1, request.getItems().size());
+            assertEquals(List.of(request.getId()), request.getItems().stream()
+                    .map(ItemDto::getRequestId)
+                    .distinct()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "@user.com")
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import org.mockito.quality.Strictness;
 import ru.practicum.shareit.exception.InvalidEntityException;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemJpaRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.RequestMapper;
@@ -28,6 +29,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -62,6 +65,7 @@ class ItemRequestServiceTest {
                 .description("description")
                 .created(LocalDateTime.now())
                 .requestor(user)
+                .requestorId(user.getId())
                 .build();
 
     }
@@ -126,8 +130,44 @@ class ItemRequestServiceTest {
         });
     }
 
+    @Test
+    void getAllRequestLoadsItemsOfThePageWithOneQuery() {
+        ItemRequest other = ItemRequest.builder()
+                .id(2L)
+                .description("other")
+                .created(LocalDateTime.now())
+                .requestorId(3L)
+                .build();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRequestRepository.findAllByRequestorIdIsNot(anyLong(), any())).thenReturn(List.of(itemRequest, other));
+        when(itemRepository.findAllByRequest_IdIn(List.of(1L, 2L))).thenReturn(List.of(
+                answer(10L, itemRequest), answer(11L, other), answer(12L, itemRequest)));
+
+        List<ItemRequestDto> requests = itemRequestService.getAllRequest(user.getId(), 0, 10);
+
+        assertEquals(List.of(10L, 12L), itemIds(requests.get(0)));
+        assertEquals(List.of(11L), itemIds(requests.get(1)));
+        assertEquals(3L, requests.get(1).getRequestor());
+        verify(itemRepository, times(1)).findAllByRequest_IdIn(any());
+    }
+
+    private static Item answer(Long id, ItemRequest request) {
+        return Item.builder()
+                .id(id)
+                .name("item" + id)
+                .available(true)
+                .request(request)
+                .build();
+    }
+
+    private static List<Long> itemIds(ItemRequestDto request) {
+        return request.getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
     private List<ItemDto> putItemDtoToRequest(ItemRequest itemRequest) {
-        return itemRepository.findAllByRequest_Id(itemRequest.getId()).stream()
+        return itemRepository.findAllByRequest_IdIn(List.of(itemRequest.getId())).stream()
                 .map(RequestMapper::toRequestItemDto)
                 .collect(Collectors.toList());
     }
@@ -137,7 +177,7 @@ class ItemRequestServiceTest {
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
                 .created(itemRequest.getCreated())
-                .requestor(itemRequest.getRequestor().getId())
+                .requestor(itemRequest.getRequestorId())
                 .items(putItemDtoToRequest(itemRequest))
                 .build();
     }
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ConcurrentUpdateException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {"shareit.retry.max-attempts=50", "shareit.retry.backoff=PT0.001S"})
+@Import(OptimisticRetry.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticRetryTest {
+
+    private static final int WRITERS = 8;
+    private static final int UPDATES = 10;
+
+    @Autowired
+    private OptimisticRetry retry;
+    @Autowired
+    private ItemJpaRepository itemRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("drill")
+                .description("")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentReadModifyWritesAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> {
+                    for (int update = 0; update < UPDATES; update++) {
+                        retry.execute(this::appendToDescription);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(WRITERS * UPDATES, updated.getDescription().length());
+        assertEquals(WRITERS * UPDATES, updated.getVersion());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(50, attempts.get());
+    }
+
+    @Test
+    void staleSnapshotFailsTheVersionCheck() {
+        Item stale = itemRepository.findById(item.getId()).orElseThrow();
+        retry.execute(this::appendToDescription);
+
+        stale.setName("hammer");
+        assertThrows(OptimisticLockingFailureException.class, () -> itemRepository.save(stale));
+        assertEquals("drill", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+
+    private Item appendToDescription() {
+        Item current = itemRepository.findById(item.getId()).orElseThrow();
+        current.setDescription(current.getDescription() + "x");
+        return itemRepository.saveAndFlush(current);
+    }
+}
@@ -8,8 +8,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.exception.EntityAlreadyExist;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.repository.ItemJpaRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -32,6 +36,18 @@ class UserServiceImplTest {
     @Mock
     private UserJpaRepository repository;
 
+    @Mock
+    private ItemJpaRepository itemRepository;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemDetailsCache itemCache;
+
     @InjectMocks
     private UserServiceImpl service;
 
@@ -96,6 +112,7 @@ class UserServiceImplTest {
         when(repository.save(any())).thenReturn(user);
 
         assertEquals(service.updateUser(1L, userDto), UserMapper.toUserDto(user));
+        verify(itemCache).invalidateAll();
 
         when(repository.findById(anyLong())).thenReturn(Optional.empty());
 
@@ -109,8 +126,14 @@ class UserServiceImplTest {
     @Test
     void deleteUser() {
         when(repository.existsById(anyLong())).thenReturn(true);
+        when(itemRepository.findIdsByOwnerId(1L)).thenReturn(List.of(3L, 4L));
         service.deleteUser(1L);
         verify(repository).deleteById(1L);
+        verify(itemSearchIndex).removeByOwner(1L);
+        verify(bookingIntervalIndex).removeItem(3L);
+        verify(bookingIntervalIndex).removeItem(4L);
+        verify(bookingIntervalIndex).removeBooker(1L);
+        verify(itemCache).invalidateAll();
 
         when(repository.existsById(anyLong())).thenReturn(false);
         assertThrows(ObjectNotFoundException.class, () -> service.deleteUser(999L));